@@ -3,11 +3,11 @@ package com.example.rangebarsample;
 
 import android.app.Dialog;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.LinearGradient;
 import android.graphics.Paint;
-import android.graphics.Shader;
+import android.graphics.Rect;
 import android.os.Bundle;
 import android.view.MotionEvent;
 import android.view.View;
@@ -35,62 +35,90 @@ public class ColorPickerDialog extends Dialog {
         private float mCurrentHue = 0;
         private int mCurrentX = 0, mCurrentY = 0;
         private int mCurrentColor, mDefaultColor;
-        private final int[] mHueBarColors = new int[258];
-        private int[] mMainColors = new int[65536];
-        private OnColorChangedListener mListener;
-
-        ColorPickerView(Context c, OnColorChangedListener l, int color, int defaultColor) {
-            super(c);
-            mListener = l;
-            mDefaultColor = defaultColor;
-
-            // Get the current hue from the current color and update the main
-            // color field
-            float[] hsv = new float[3];
-            Color.colorToHSV(color, hsv);
-            mCurrentHue = hsv[0];
-            updateMainColors();
 
-            mCurrentColor = color;
+        // Colors of the hue slider bar, indexed by the translated hue. Also
+        // used to look up the color of the current hue.
+        private static final int[] HUE_BAR_COLORS = new int[258];
 
+        static
+        {
             // Initialize the colors of the hue slider bar
             int index = 0;
             for (float i = 0; i < 256; i += 256 / 42) // Red (#f00) to pink
                                                       // (#f0f)
             {
-                mHueBarColors[index] = Color.rgb(255, 0, (int) i);
+                HUE_BAR_COLORS[index] = Color.rgb(255, 0, (int) i);
                 index++;
             }
             for (float i = 0; i < 256; i += 256 / 42) // Pink (#f0f) to blue
                                                       // (#00f)
             {
-                mHueBarColors[index] = Color.rgb(255 - (int) i, 0, 255);
+                HUE_BAR_COLORS[index] = Color.rgb(255 - (int) i, 0, 255);
                 index++;
             }
             for (float i = 0; i < 256; i += 256 / 42) // Blue (#00f) to light
                                                       // blue (#0ff)
             {
-                mHueBarColors[index] = Color.rgb(0, (int) i, 255);
+                HUE_BAR_COLORS[index] = Color.rgb(0, (int) i, 255);
                 index++;
             }
             for (float i = 0; i < 256; i += 256 / 42) // Light blue (#0ff) to
                                                       // green (#0f0)
             {
-                mHueBarColors[index] = Color.rgb(0, 255, 255 - (int) i);
+                HUE_BAR_COLORS[index] = Color.rgb(0, 255, 255 - (int) i);
                 index++;
             }
             for (float i = 0; i < 256; i += 256 / 42) // Green (#0f0) to yellow
                                                       // (#ff0)
             {
-                mHueBarColors[index] = Color.rgb((int) i, 255, 0);
+                HUE_BAR_COLORS[index] = Color.rgb((int) i, 255, 0);
                 index++;
             }
             for (float i = 0; i < 256; i += 256 / 42) // Yellow (#ff0) to red
                                                       // (#f00)
             {
-                mHueBarColors[index] = Color.rgb(255, 255 - (int) i, 0);
+                HUE_BAR_COLORS[index] = Color.rgb(255, 255 - (int) i, 0);
                 index++;
             }
+        }
+
+        // Channels of the top row of the main field, from white to the hue.
+        private final int[] mTopReds = new int[256];
+        private final int[] mTopGreens = new int[256];
+        private final int[] mTopBlues = new int[256];
+
+        private int[] mMainColors = new int[65536];
+        private OnColorChangedListener mListener;
+
+        // The hue bar and the main field are rendered into these Bitmaps, so
+        // that a frame only has to blit them. The main field is only
+        // re-rendered when the hue changes.
+        private final Bitmap mHueBarBitmap = Bitmap.createBitmap(256, 1, Bitmap.Config.ARGB_8888);
+        private final Bitmap mMainBitmap = Bitmap.createBitmap(256, 256, Bitmap.Config.ARGB_8888);
+        private final Rect mHueBarSrc = new Rect(0, 0, 256, 1);
+        private final Rect mHueBarDst = new Rect(10, 0, 266, 40);
+
+        private final String mConfirmNewColorText;
+        private final String mConfirmDefaultColorText;
+
+        ColorPickerView(Context c, OnColorChangedListener l, int color, int defaultColor) {
+            super(c);
+            mListener = l;
+            mDefaultColor = defaultColor;
+
+            // Get the current hue from the current color and update the main
+            // color field
+            float[] hsv = new float[3];
+            Color.colorToHSV(color, hsv);
+            mCurrentHue = hsv[0];
+            updateMainColors();
+
+            mCurrentColor = color;
+
+            mHueBarBitmap.setPixels(HUE_BAR_COLORS, 0, 256, 0, 0, 256, 1);
+
+            mConfirmNewColorText = getResources().getString(R.string.confirmNewColor);
+            mConfirmDefaultColorText = getResources().getString(R.string.confirmDefaultColor);
 
             // Initializes the Paint that will draw the View
             mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -102,104 +130,67 @@ public class ColorPickerDialog extends Dialog {
         private int getCurrentMainColor()
         {
             int translatedHue = 255 - (int) (mCurrentHue * 255 / 360);
-            int index = 0;
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb(255, 0, (int) i);
-                index++;
-            }
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb(255 - (int) i, 0, 255);
-                index++;
-            }
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb(0, (int) i, 255);
-                index++;
-            }
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb(0, 255, 255 - (int) i);
-                index++;
-            }
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb((int) i, 255, 0);
-                index++;
-            }
-            for (float i = 0; i < 256; i += 256 / 42)
-            {
-                if (index == translatedHue)
-                    return Color.rgb(255, 255 - (int) i, 0);
-                index++;
-            }
-            return Color.RED;
+            if (translatedHue < 0 || translatedHue >= HUE_BAR_COLORS.length)
+                return Color.RED;
+            return HUE_BAR_COLORS[translatedHue];
         }
 
-        // Update the main field colors depending on the current selected hue
+        // Update the main field colors depending on the current selected hue.
+        // Row y of the field is the top row darkened by (255 - y) / 255, which
+        // is computed with integer math only and written to the Bitmap at once.
         private void updateMainColors()
         {
             int mainColor = getCurrentMainColor();
+            final int red = Color.red(mainColor);
+            final int green = Color.green(mainColor);
+            final int blue = Color.blue(mainColor);
+
+            for (int x = 0; x < 256; x++)
+            {
+                mTopReds[x] = 255 - (255 - red) * x / 255;
+                mTopGreens[x] = 255 - (255 - green) * x / 255;
+                mTopBlues[x] = 255 - (255 - blue) * x / 255;
+            }
+
+            final int[] colors = mMainColors;
             int index = 0;
-            int[] topColors = new int[256];
             for (int y = 0; y < 256; y++)
             {
+                final int scale = 255 - y;
                 for (int x = 0; x < 256; x++)
                 {
-                    if (y == 0)
-                    {
-                        mMainColors[index] = Color.rgb(255 - (255 - Color.red(mainColor)) * x / 255,
-                                                       255 - (255 - Color.green(mainColor)) * x / 255,
-                                                       255 - (255 - Color.blue(mainColor)) * x / 255);
-                        topColors[x] = mMainColors[index];
-                    }
-                    else
-                        mMainColors[index] = Color.rgb((255 - y) * Color.red(topColors[x]) / 255,
-                                                       (255 - y) * Color.green(topColors[x]) / 255,
-                                                       (255 - y) * Color.blue(topColors[x]) / 255);
-                    index++;
+                    colors[index++] = 0xff000000
+                            | divideBy255(scale * mTopReds[x]) << 16
+                            | divideBy255(scale * mTopGreens[x]) << 8
+                            | divideBy255(scale * mTopBlues[x]);
                 }
             }
+
+            mMainBitmap.setPixels(colors, 0, 256, 0, 0, 256, 256);
+        }
+
+        // Exact v / 255 for 0 <= v <= 255 * 255, without a division.
+        private static int divideBy255(int v)
+        {
+            return (v + (v >> 8) + 1) >> 8;
         }
 
         @Override
         protected void onDraw(Canvas canvas) {
             int translatedHue = 255 - (int) (mCurrentHue * 255 / 360);
-            // Display all the colors of the hue bar with lines
-            for (int x = 0; x < 256; x++)
-            {
-                // If this is not the current selected hue, display the actual
-                // color
-                if (translatedHue != x)
-                {
-                    mPaint.setColor(mHueBarColors[x]);
-                    mPaint.setStrokeWidth(1);
-                }
-                else // else display a slightly larger black line
-                {
-                    mPaint.setColor(Color.BLACK);
-                    mPaint.setStrokeWidth(3);
-                }
-                canvas.drawLine(x + 10, 0, x + 10, 40, mPaint);
-            }
 
-            // Display the main field colors using LinearGradient
-            for (int x = 0; x < 256; x++)
-            {
-                int[] colors = new int[2];
-                colors[0] = mMainColors[x];
-                colors[1] = Color.BLACK;
-                Shader shader = new LinearGradient(0, 50, 0, 306, colors, null, Shader.TileMode.REPEAT);
-                mPaint.setShader(shader);
-                canvas.drawLine(x + 10, 50, x + 10, 306, mPaint);
-            }
-            mPaint.setShader(null);
+            // Display all the colors of the hue bar, stretching the one pixel
+            // high Bitmap without filtering
+            canvas.drawBitmap(mHueBarBitmap, mHueBarSrc, mHueBarDst, null);
+
+            // Mark the current selected hue with a slightly larger black line
+            mPaint.setColor(Color.BLACK);
+            mPaint.setStrokeWidth(3);
+            canvas.drawLine(translatedHue + 10, 0, translatedHue + 10, 40, mPaint);
+            mPaint.setStrokeWidth(1);
+
+            // Display the main field colors
+            canvas.drawBitmap(mMainBitmap, 10, 50, null);
 
             // Display the circle around the currently selected color in the
             // main field
@@ -220,7 +211,7 @@ public class ColorPickerDialog extends Dialog {
                 mPaint.setColor(Color.WHITE);
             else
                 mPaint.setColor(Color.BLACK);
-            canvas.drawText(getResources().getString(R.string.confirmNewColor), 74, 340, mPaint);
+            canvas.drawText(mConfirmNewColorText, 74, 340, mPaint);
 
             // Draw a 'button' with the default color
             mPaint.setStyle(Paint.Style.FILL);
@@ -232,7 +223,7 @@ public class ColorPickerDialog extends Dialog {
                 mPaint.setColor(Color.WHITE);
             else
                 mPaint.setColor(Color.BLACK);
-            canvas.drawText(getResources().getString(R.string.confirmDefaultColor), 202, 340, mPaint);
+            canvas.drawText(mConfirmDefaultColorText, 202, 340, mPaint);
         }
 
         @Override
@@ -242,7 +233,10 @@ public class ColorPickerDialog extends Dialog {
 
         @Override
         public boolean onTouchEvent(MotionEvent event) {
-            if (event.getAction() != MotionEvent.ACTION_DOWN)
+            // The hue bar and the main field follow drags, now that a hue
+            // change is cheap enough to redo on every move
+            final int action = event.getAction();
+            if (action != MotionEvent.ACTION_DOWN && action != MotionEvent.ACTION_MOVE)
                 return true;
             float x = event.getX();
             float y = event.getY();
@@ -284,12 +278,12 @@ public class ColorPickerDialog extends Dialog {
 
             // If the touch event is located in the left button, notify the
             // listener with the current color
-            if (x > 10 && x < 138 && y > 316 && y < 356)
+            if (action == MotionEvent.ACTION_DOWN && x > 10 && x < 138 && y > 316 && y < 356)
                 mListener.colorChanged(mComponent, mCurrentColor);
 
             // If the touch event is located in the right button, notify the
             // listener with the default color
-            if (x > 138 && x < 266 && y > 316 && y < 356)
+            if (action == MotionEvent.ACTION_DOWN && x > 138 && x < 266 && y > 316 && y < 356)
                 mListener.colorChanged(mComponent, mDefaultColor);
 
             return true;
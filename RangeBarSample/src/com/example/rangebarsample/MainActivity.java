@@ -2,6 +2,7 @@
 package com.example.rangebarsample;
 
 import android.app.Activity;
+import android.content.Intent;
 import android.graphics.Typeface;
 import android.os.Bundle;
 import android.view.Gravity;
@@ -101,6 +102,7 @@ public class MainActivity extends Activity implements ColorPickerDialog.OnColorC
         final Button thumbColorPressed = (Button) findViewById(R.id.thumbColorPressed);
         final Button resetThumbColors = (Button) findViewById(R.id.resetThumbColors);
         final Button refreshButton = (Button) findViewById(R.id.refresh);
+        final Button stressTest = (Button) findViewById(R.id.stressTest);
         
         //Sets the buttons to bold.
         refreshButton.setTypeface(font,Typeface.BOLD);
@@ -109,6 +111,7 @@ public class MainActivity extends Activity implements ColorPickerDialog.OnColorC
         thumbColorNormal.setTypeface(font,Typeface.BOLD);
         thumbColorPressed.setTypeface(font,Typeface.BOLD);
         resetThumbColors.setTypeface(font,Typeface.BOLD);
+        stressTest.setTypeface(font,Typeface.BOLD);
 
         // Sets initial colors for the Color buttons
         barColor.setTextColor(DEFAULT_BAR_COLOR);
@@ -311,6 +314,13 @@ public class MainActivity extends Activity implements ColorPickerDialog.OnColorC
             }
         });
 
+        // Opens the stress test
+        stressTest.setOnClickListener(new View.OnClickListener() {
+            public void onClick(View v) {
+                startActivity(new Intent(MainActivity.this, StressActivity.class));
+            }
+        });
+
     }
 
     /**
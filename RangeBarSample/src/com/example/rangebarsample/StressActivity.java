@@ -0,0 +1,562 @@
+package com.example.rangebarsample;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.edmodo.rangebar.RangeBar;
+import com.edmodo.rangebar.core.Histogram;
+import com.edmodo.rangebar.core.RangeBarMetrics;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * Stress test for RangeBar: hundreds of RangeBars with mixed tick counts and
+ * thumb styles in a recycled list. A script alternates flings of the list with
+ * drags of one of the visible RangeBars, while a HUD shows the frame times,
+ * garbage collections and the combined metrics of the RangeBars. At the end of
+ * the script the results are written as JSON to the app's files directory.
+ * <p>
+ * The test is configured with Intent extras, e.g.
+ *
+ * <pre>
+ * adb shell am start -n com.example.rangebarsample/.StressActivity \
+ *     --ei rowCount 500 --eia tickCounts 5,50,500 --eia styles 1 --ei cycles 20
+ * </pre>
+ */
+public class StressActivity extends Activity {
+
+    private static final String TAG = "StressActivity";
+
+    // Intent extras
+    public static final String EXTRA_ROW_COUNT = "rowCount";
+    public static final String EXTRA_TICK_COUNTS = "tickCounts";
+    public static final String EXTRA_STYLES = "styles";
+    public static final String EXTRA_CYCLES = "cycles";
+
+    // Thumb styles, cycled through by the rows
+    public static final int STYLE_IMAGE = 0;
+    public static final int STYLE_CIRCLE = 1;
+    public static final int STYLE_IMAGE_RGB_565 = 2;
+
+    private static final int DEFAULT_ROW_COUNT = 300;
+    private static final int[] DEFAULT_TICK_COUNTS = { 3, 10, 100, 1000 };
+    private static final int[] DEFAULT_STYLES = { STYLE_IMAGE, STYLE_CIRCLE, STYLE_IMAGE_RGB_565 };
+    private static final int DEFAULT_CYCLES = 10;
+
+    private static final float ROW_HEIGHT_DP = 72;
+    private static final float THUMB_RADIUS_DP = 14;
+
+    // Where a drag starts, from the left edge of the RangeBar. This is inside
+    // the touch area of the left thumb at the first tick for every style.
+    private static final float DRAG_START_DP = 16;
+
+    private static final int FLING_DISTANCE_ROWS = 40;
+    private static final int FLING_DURATION_MS = 1000;
+    private static final int DRAG_FRAMES = 60;
+    private static final int STEP_MS = 16;
+    private static final int HUD_INTERVAL_MS = 500;
+
+    // Script phases
+    private static final int PHASE_FLING = 0;
+    private static final int PHASE_DRAG = 1;
+    private static final int PHASE_DONE = 2;
+
+    private final Handler mHandler = new Handler();
+
+    // Intervals between frames, in nanoseconds
+    private final Histogram mFrameTimes = new Histogram();
+    private long mLastFrameNanos = -1;
+    // A FrameCallbackMonitor on API 16+, an OnPreDrawListener below; only
+    // name the former behind the same version check.
+    private Object mFrameMonitor;
+    private boolean mUsesFrameCallback;
+
+    // Every RangeBar the adapter created; recycled rows are reused, so this
+    // stays small.
+    private final ArrayList<RangeBar> mRangeBars = new ArrayList<RangeBar>();
+    private final RangeBarMetrics.Snapshot mSnapshot = new RangeBarMetrics.Snapshot();
+    private final Histogram mDrawTimes = new Histogram();
+    private final long[] mCounters = new long[RangeBarMetrics.COUNTER_COUNT];
+
+    private ListView mListView;
+    private TextView mHud;
+
+    private int mRowCount;
+    private int[] mTickCounts;
+    private int[] mStyles;
+    private int mCycles;
+
+    private int mPhase;
+    private int mCycle;
+    private int mStep;
+    private int mFlingDirection = 1;
+    private RangeBar mDragTarget;
+    private long mDragDownTime;
+
+    private int mStartGcCount;
+    private long mStartTime;
+    private File mReport;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        requestWindowFeature(Window.FEATURE_NO_TITLE);
+
+        final Intent intent = getIntent();
+        mRowCount = intent.getIntExtra(EXTRA_ROW_COUNT, DEFAULT_ROW_COUNT);
+        mTickCounts = getIntArrayExtra(intent, EXTRA_TICK_COUNTS, DEFAULT_TICK_COUNTS);
+        mStyles = getIntArrayExtra(intent, EXTRA_STYLES, DEFAULT_STYLES);
+        mCycles = intent.getIntExtra(EXTRA_CYCLES, DEFAULT_CYCLES);
+
+        mListView = new ListView(this);
+        mListView.setAdapter(new RangeBarAdapter());
+
+        mHud = new TextView(this);
+        mHud.setTextSize(12);
+        mHud.setTextColor(Color.WHITE);
+        mHud.setBackgroundColor(0xb0000000);
+        final int padding = dpToPx(8);
+        mHud.setPadding(padding, padding, padding, padding);
+
+        final FrameLayout root = new FrameLayout(this);
+        root.addView(mListView, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                                                             ViewGroup.LayoutParams.MATCH_PARENT));
+        root.addView(mHud, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                                                        ViewGroup.LayoutParams.WRAP_CONTENT,
+                                                        Gravity.TOP | Gravity.RIGHT));
+        setContentView(root);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        startFrameMonitor();
+
+        // GCs are only counted while allocation counting is on.
+        Debug.resetGlobalGcInvocationCount();
+        Debug.startAllocCounting();
+        mStartGcCount = Debug.getGlobalGcInvocationCount();
+        mStartTime = SystemClock.elapsedRealtime();
+
+        if (mPhase != PHASE_DONE) {
+            mHandler.postDelayed(mScript, FLING_DURATION_MS);
+        }
+        mHandler.post(mHudUpdater);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+
+        mHandler.removeCallbacks(mScript);
+        mHandler.removeCallbacks(mHudUpdater);
+        cancelDrag();
+        stopFrameMonitor();
+        Debug.stopAllocCounting();
+    }
+
+    // Script ------------------------------------------------------------------
+
+    private final Runnable mScript = new Runnable() {
+        @Override
+        public void run() {
+
+            if (mPhase == PHASE_FLING) {
+                fling();
+                mPhase = PHASE_DRAG;
+                mStep = 0;
+                // Wait for the fling to settle
+                mHandler.postDelayed(this, FLING_DURATION_MS + HUD_INTERVAL_MS);
+
+            } else if (mPhase == PHASE_DRAG) {
+                if (drag(mStep++)) {
+                    mHandler.postDelayed(this, STEP_MS);
+                } else if (++mCycle < mCycles) {
+                    mPhase = PHASE_FLING;
+                    mHandler.post(this);
+                } else {
+                    mPhase = PHASE_DONE;
+                    writeReport();
+                    updateHud();
+                }
+            }
+        }
+    };
+
+    // Flings the list by a number of rows, changing direction at either end.
+    private void fling() {
+
+        final int distance = FLING_DISTANCE_ROWS * dpToPx(ROW_HEIGHT_DP);
+
+        if (mListView.getFirstVisiblePosition() == 0) {
+            mFlingDirection = 1;
+        } else if (mListView.getLastVisiblePosition() == mRowCount - 1) {
+            mFlingDirection = -1;
+        }
+        mListView.smoothScrollBy(mFlingDirection * distance, FLING_DURATION_MS);
+    }
+
+    /**
+     * Performs one step of a drag of the left thumb of the RangeBar in the
+     * middle of the screen, from the first tick to the last one.
+     *
+     * @param step the index of the step
+     * @return true if there are more steps
+     */
+    private boolean drag(int step) {
+
+        if (step == 0) {
+            mDragTarget = findDragTarget();
+            if (mDragTarget == null) {
+                return false;
+            }
+            mDragTarget.setThumbIndices(0, getTickCount(mDragTarget) - 1);
+            mDragDownTime = SystemClock.uptimeMillis();
+            dispatchDragEvent(MotionEvent.ACTION_DOWN, 0);
+            return true;
+        }
+
+        if (step < DRAG_FRAMES) {
+            dispatchDragEvent(MotionEvent.ACTION_MOVE, step / (float) DRAG_FRAMES);
+            return true;
+        }
+
+        dispatchDragEvent(MotionEvent.ACTION_UP, 1);
+        mDragTarget = null;
+        return false;
+    }
+
+    private void cancelDrag() {
+
+        if (mDragTarget != null) {
+            dispatchDragEvent(MotionEvent.ACTION_CANCEL, 0);
+            mDragTarget = null;
+            // Start the interrupted cycle over
+            mPhase = PHASE_FLING;
+        }
+    }
+
+    private void dispatchDragEvent(int action, float fraction) {
+
+        final float start = dpToPx(DRAG_START_DP);
+        final float end = mDragTarget.getWidth() - start;
+        final float x = start + (end - start) * fraction;
+        final float y = mDragTarget.getHeight() / 2f;
+
+        final MotionEvent event = MotionEvent.obtain(mDragDownTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        mDragTarget.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private RangeBar findDragTarget() {
+
+        final int childCount = mListView.getChildCount();
+        if (childCount == 0) {
+            return null;
+        }
+        return (RangeBar) mListView.getChildAt(childCount / 2);
+    }
+
+    private int getTickCount(RangeBar rangeBar) {
+        return ((Integer) rangeBar.getTag()).intValue();
+    }
+
+    // Frame times -------------------------------------------------------------
+
+    private void startFrameMonitor() {
+
+        mLastFrameNanos = -1;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            final FrameCallbackMonitor monitor = new FrameCallbackMonitor();
+            Choreographer.getInstance().postFrameCallback(monitor);
+            mFrameMonitor = monitor;
+            mUsesFrameCallback = true;
+        } else {
+            // Without a Choreographer, time the draws of the list instead.
+            final ViewTreeObserver.OnPreDrawListener listener = new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    recordFrame(System.nanoTime());
+                    return true;
+                }
+            };
+            mListView.getViewTreeObserver().addOnPreDrawListener(listener);
+            mFrameMonitor = listener;
+            mUsesFrameCallback = false;
+        }
+    }
+
+    private void stopFrameMonitor() {
+
+        if (mFrameMonitor == null) {
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && mUsesFrameCallback) {
+            ((FrameCallbackMonitor) mFrameMonitor).mStopped = true;
+        } else {
+            mListView.getViewTreeObserver().removeOnPreDrawListener((ViewTreeObserver.OnPreDrawListener) mFrameMonitor);
+        }
+        mFrameMonitor = null;
+    }
+
+    private void recordFrame(long frameTimeNanos) {
+
+        // Idle time before the script starts, or between pausing and resuming,
+        // is not a frame.
+        if (mLastFrameNanos >= 0 && mPhase != PHASE_DONE) {
+            mFrameTimes.record(frameTimeNanos - mLastFrameNanos);
+        }
+        mLastFrameNanos = frameTimeNanos;
+    }
+
+    private class FrameCallbackMonitor implements Choreographer.FrameCallback {
+
+        boolean mStopped;
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mStopped) {
+                recordFrame(frameTimeNanos);
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+
+    // HUD and report ----------------------------------------------------------
+
+    private final Runnable mHudUpdater = new Runnable() {
+        @Override
+        public void run() {
+            updateHud();
+            mHandler.postDelayed(this, HUD_INTERVAL_MS);
+        }
+    };
+
+    // Combines the metrics of all RangeBars into mDrawTimes and mCounters.
+    private void collectMetrics() {
+
+        mDrawTimes.reset();
+        for (int i = 0; i < RangeBarMetrics.COUNTER_COUNT; i++) {
+            mCounters[i] = 0;
+        }
+
+        for (int i = 0; i < mRangeBars.size(); i++) {
+            mRangeBars.get(i).getMetrics().snapshot(mSnapshot);
+            mDrawTimes.add(mSnapshot.getHistogram(RangeBarMetrics.HISTOGRAM_DRAW));
+            for (int j = 0; j < RangeBarMetrics.COUNTER_COUNT; j++) {
+                mCounters[j] += mSnapshot.getCounter(j);
+            }
+        }
+    }
+
+    private int getGcCount() {
+        return Debug.getGlobalGcInvocationCount() - mStartGcCount;
+    }
+
+    private void updateHud() {
+
+        collectMetrics();
+
+        final StringBuilder text = new StringBuilder();
+        text.append(mPhase == PHASE_DONE ? "Done" : "Cycle " + (mCycle + 1) + "/" + mCycles)
+            .append(", ").append(mRowCount).append(" rows, ").append(mRangeBars.size()).append(" RangeBars\n");
+        text.append("frame p50 ").append(toMillis(mFrameTimes.getPercentile(50)))
+            .append(" p90 ").append(toMillis(mFrameTimes.getPercentile(90)))
+            .append(" p99 ").append(toMillis(mFrameTimes.getPercentile(99)))
+            .append(" max ").append(toMillis(mFrameTimes.getMax())).append(" ms\n");
+        text.append("onDraw p50 ").append(toMillis(mDrawTimes.getPercentile(50)))
+            .append(" p99 ").append(toMillis(mDrawTimes.getPercentile(99))).append(" ms\n");
+        text.append("GCs ").append(getGcCount())
+            .append(", invalidations ").append(mCounters[RangeBarMetrics.COUNTER_INVALIDATIONS]).append('\n');
+        text.append("rebuilds: bar ").append(mCounters[RangeBarMetrics.COUNTER_BAR_REBUILDS])
+            .append(", thumbs ").append(mCounters[RangeBarMetrics.COUNTER_THUMB_REBUILDS])
+            .append(", line ").append(mCounters[RangeBarMetrics.COUNTER_CONNECTING_LINE_REBUILDS]);
+        if (mReport != null) {
+            text.append("\nReport: ").append(mReport.getAbsolutePath());
+        }
+        mHud.setText(text);
+    }
+
+    private void writeReport() {
+
+        collectMetrics();
+
+        try {
+            final JSONObject config = new JSONObject();
+            config.put("rowCount", mRowCount);
+            config.put("tickCounts", toJson(mTickCounts));
+            config.put("styles", toJson(mStyles));
+            config.put("cycles", mCycles);
+
+            final JSONObject counters = new JSONObject();
+            counters.put("invalidations", mCounters[RangeBarMetrics.COUNTER_INVALIDATIONS]);
+            counters.put("barRebuilds", mCounters[RangeBarMetrics.COUNTER_BAR_REBUILDS]);
+            counters.put("thumbRebuilds", mCounters[RangeBarMetrics.COUNTER_THUMB_REBUILDS]);
+            counters.put("connectingLineRebuilds", mCounters[RangeBarMetrics.COUNTER_CONNECTING_LINE_REBUILDS]);
+            counters.put("resourceReleases", mCounters[RangeBarMetrics.COUNTER_RESOURCE_RELEASES]);
+
+            final JSONObject report = new JSONObject();
+            report.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+            report.put("sdk", Build.VERSION.SDK_INT);
+            report.put("config", config);
+            report.put("durationMs", SystemClock.elapsedRealtime() - mStartTime);
+            report.put("rangeBars", mRangeBars.size());
+            report.put("frameNanos", toJson(mFrameTimes));
+            report.put("drawNanos", toJson(mDrawTimes));
+            report.put("gcCount", getGcCount());
+            report.put("counters", counters);
+
+            mReport = new File(getFilesDir(), "stress-report-" + System.currentTimeMillis() + ".json");
+            final Writer writer = new OutputStreamWriter(new FileOutputStream(mReport), "UTF-8");
+            try {
+                writer.write(report.toString(2));
+            } finally {
+                writer.close();
+            }
+            Log.i(TAG, "Wrote " + mReport.getAbsolutePath());
+
+        } catch (JSONException e) {
+            Log.e(TAG, "Could not create the report.", e);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write the report.", e);
+            mReport = null;
+        }
+    }
+
+    private static JSONObject toJson(Histogram histogram) throws JSONException {
+
+        final JSONObject json = new JSONObject();
+        json.put("count", histogram.getCount());
+        json.put("mean", histogram.getMean());
+        json.put("p50", histogram.getPercentile(50));
+        json.put("p90", histogram.getPercentile(90));
+        json.put("p99", histogram.getPercentile(99));
+        json.put("max", histogram.getMax());
+        return json;
+    }
+
+    private static JSONArray toJson(int[] values) {
+
+        final JSONArray json = new JSONArray();
+        for (int value : values) {
+            json.put(value);
+        }
+        return json;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.1f", nanos / 1e6);
+    }
+
+    private static int[] getIntArrayExtra(Intent intent, String name, int[] defaultValue) {
+
+        final int[] value = intent.getIntArrayExtra(name);
+        return (value != null && value.length > 0) ? value : defaultValue;
+    }
+
+    private int dpToPx(float dp) {
+        return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, getResources().getDisplayMetrics());
+    }
+
+    // Adapter -----------------------------------------------------------------
+
+    private class RangeBarAdapter extends BaseAdapter {
+
+        @Override
+        public int getCount() {
+            return mRowCount;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return null;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        // Each style is its own view type, so that a recycled RangeBar never
+        // has to rebuild its thumbs.
+        @Override
+        public int getViewTypeCount() {
+            return mStyles.length;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % mStyles.length;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+
+            RangeBar rangeBar = (RangeBar) convertView;
+            if (rangeBar == null) {
+                rangeBar = createRangeBar(mStyles[getItemViewType(position)]);
+            }
+
+            // Only the tick count changes from row to row
+            final int tickCount = mTickCounts[position % mTickCounts.length];
+            if (getTickCount(rangeBar) != tickCount) {
+                rangeBar.setTickCount(tickCount);
+                rangeBar.setTag(Integer.valueOf(tickCount));
+            }
+            return rangeBar;
+        }
+
+        private RangeBar createRangeBar(int style) {
+
+            final RangeBar rangeBar = new RangeBar(StressActivity.this);
+            rangeBar.setMetricsEnabled(true);
+            rangeBar.setLayoutParams(new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                                                                  dpToPx(ROW_HEIGHT_DP)));
+
+            if (style == STYLE_CIRCLE) {
+                rangeBar.setThumbRadius(THUMB_RADIUS_DP);
+            } else if (style == STYLE_IMAGE_RGB_565) {
+                rangeBar.setThumbBitmapConfig(Bitmap.Config.RGB_565);
+            }
+
+            // The tick count of a new RangeBar; kept up to date by getView().
+            rangeBar.setTag(Integer.valueOf(3));
+            mRangeBars.add(rangeBar);
+            return rangeBar;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+import com.edmodo.rangebar.core.IndexChangeDispatcher;
+import com.edmodo.rangebar.core.ListenerArray;
+import com.edmodo.rangebar.core.RangeBarCanvas;
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+import com.edmodo.rangebar.core.RecordingCanvas;
+import com.edmodo.rangebar.core.ThumbModel;
+import com.edmodo.rangebar.core.TouchPredictor;
+
+/**
+ * Proves that a drag does not allocate. Drives a {@link RangeBarController}
+ * through synthetic DOWN / MOVE x N / UP sequences and draws a frame with
+ * {@link RangeBarPainter#draw(RangeBarCanvas, RangeBarController)} after each
+ * event, measuring the bytes allocated by the current thread. Index changes
+ * reach the listeners through the {@link IndexChangeDispatcher} RangeBar
+ * uses. After a warm-up the steady-state frames must allocate nothing;
+ * otherwise the guard reports which part of the pipeline allocated and exits
+ * with a non-zero status, failing the build.
+ * <p>
+ * The parts are named after the view classes whose logic they exercise: Bar
+ * (drawing the bar and ticks), Thumb (hit-testing, releasing and drawing the
+ * thumbs), ConnectingLine (drawing the line) and the listener dispatch of a
+ * move. Bytes allocated while drawing are charged to the part whose operation
+ * the painter issues next.
+ */
+public final class AllocationGuard {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    private static final int[] TICK_COUNTS = { 3, 100, 10000 };
+
+    private static final int WARMUP_GESTURES = 2000;
+    private static final int MEASURED_GESTURES = 200;
+    private static final int MOVES_PER_GESTURE = 64;
+    private static final int LISTENER_COUNT = 3;
+
+    // Spacing of the synthetic touch samples and how far ahead they are
+    // predicted, in nanoseconds.
+    private static final long SAMPLE_INTERVAL_NANOS = 8000000L;
+    private static final long PREDICTION_HORIZON_NANOS = 16000000L;
+
+    private static final int BAR = 0;
+    private static final int THUMB = 1;
+    private static final int CONNECTING_LINE = 2;
+    private static final int LISTENER = 3;
+    private static final String[] COMPONENT_NAMES = { "Bar", "Thumb", "ConnectingLine", "listener" };
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final com.sun.management.ThreadMXBean mThreadBean;
+    private final long mThreadId = Thread.currentThread().getId();
+
+    // Allocated bytes per component for the current tick count.
+    private final long[] mAllocated = new long[COMPONENT_NAMES.length];
+
+    // Overhead of a single pair of allocation readings, subtracted from every
+    // measurement.
+    private long mMeasurementOverhead;
+
+    private final float[] mPositions = new float[BenchmarkConstants.POSITION_COUNT];
+
+    private RangeBarController mController;
+
+    private final RangeBarPainter mPainter = new RangeBarPainter();
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+    private final AttributingCanvas mAttributingCanvas = new AttributingCanvas();
+
+    // Accumulated so that the JIT cannot remove the work being measured.
+    private float mSink;
+
+    // Several listeners registered the way RangeBar registers its clients'
+    // listeners, so that the guard covers the copy-on-write dispatch.
+    private final ListenerArray<RangeBarController.OnIndexChangeListener> mListeners = new ListenerArray<RangeBarController.OnIndexChangeListener>();
+
+    private final IndexChangeDispatcher<RangeBarController.OnIndexChangeListener> mDispatcher = new IndexChangeDispatcher<RangeBarController.OnIndexChangeListener>(mListeners) {
+        @Override
+        protected void dispatch(RangeBarController.OnIndexChangeListener listener, int leftThumbIndex, int rightThumbIndex) {
+            listener.onIndexChange(leftThumbIndex, rightThumbIndex);
+        }
+    };
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    private AllocationGuard() {
+
+        mThreadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+
+        BenchmarkConstants.fillSweep(mPositions);
+
+        for (int i = 0; i < LISTENER_COUNT; i++) {
+            mListeners.add(new RangeBarController.OnIndexChangeListener() {
+                @Override
+                public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+                    mSink += leftThumbIndex + rightThumbIndex;
+                }
+            });
+        }
+
+        mPainter.setTickHeight(48f);
+        mPainter.setThumbImages(32f, 32f, 32f, 32f);
+    }
+
+    // Main ////////////////////////////////////////////////////////////////////
+
+    public static void main(String[] args) {
+
+        final AllocationGuard guard = new AllocationGuard();
+        guard.calibrate();
+
+        boolean allocated = false;
+        for (int tickCount : TICK_COUNTS) {
+            allocated |= guard.run(tickCount);
+        }
+
+        if (allocated) {
+            System.err.println("AllocationGuard: steady-state drag frames allocated memory.");
+            System.exit(1);
+        }
+        System.out.println("AllocationGuard: no allocations in steady-state drag frames.");
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Measures the cost of reading the allocation counter itself.
+     */
+    private void calibrate() {
+
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            final long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+        mMeasurementOverhead = overhead;
+    }
+
+    /**
+     * Runs the gestures for one tick count.
+     * 
+     * @param tickCount the number of ticks on the bar
+     * @return true if any steady-state frame allocated
+     */
+    private boolean run(int tickCount) {
+
+        mController = new RangeBarController(tickCount, mDispatcher);
+        mController.setTouchPredictor(new TouchPredictor());
+        mController.setThumbTargetRadius(48f);
+        mController.setLayout(BenchmarkConstants.MARGIN, BenchmarkConstants.Y, BenchmarkConstants.BAR_LENGTH);
+
+        // Let the JIT compile the pipeline before measuring.
+        for (int i = 0; i < WARMUP_GESTURES; i++) {
+            gesture(i);
+        }
+
+        for (int i = 0; i < mAllocated.length; i++) {
+            mAllocated[i] = 0;
+        }
+        for (int i = 0; i < MEASURED_GESTURES; i++) {
+            gesture(i);
+        }
+
+        boolean allocated = false;
+        final StringBuilder report = new StringBuilder();
+        report.append("tickCount=").append(tickCount);
+        for (int i = 0; i < mAllocated.length; i++) {
+            report.append(' ').append(COMPONENT_NAMES[i]).append('=').append(mAllocated[i]).append('B');
+            allocated |= mAllocated[i] > 0;
+        }
+        System.out.println(report);
+
+        return allocated;
+    }
+
+    /**
+     * Performs a single DOWN / MOVE x N / UP gesture, drawing a frame after
+     * each event.
+     * 
+     * @param gesture the index of the gesture, used to vary the positions
+     */
+    private void gesture(int gesture) {
+
+        long start;
+
+        // Press alternately the left and the right thumb.
+        final ThumbModel pressed = (gesture % 2 == 0) ? mController.getLeftThumb() : mController.getRightThumb();
+
+        start = allocatedBytes();
+        mController.onActionDown(pressed.getX(), pressed.getY());
+        record(THUMB, start);
+
+        frame();
+
+        for (int i = 0; i < MOVES_PER_GESTURE; i++) {
+
+            final float x = mPositions[(gesture * MOVES_PER_GESTURE + i) & BenchmarkConstants.POSITION_MASK];
+
+            start = allocatedBytes();
+            mController.onActionMove(x);
+            record(LISTENER, start);
+
+            final long time = (gesture * MOVES_PER_GESTURE + i) * SAMPLE_INTERVAL_NANOS;
+            start = allocatedBytes();
+            mController.getTouchPredictor().addSample(x, time);
+            mController.predictMove(time + PREDICTION_HORIZON_NANOS);
+            record(THUMB, start);
+
+            frame();
+        }
+
+        start = allocatedBytes();
+        mController.onActionUp(pressed.getX(), pressed.getY());
+        record(THUMB, start);
+
+        frame();
+    }
+
+    /**
+     * Draws one frame the way RangeBar.onDraw does.
+     */
+    private void frame() {
+
+        mCanvas.reset();
+
+        mAttributingCanvas.begin();
+        mPainter.draw(mAttributingCanvas, mController);
+        mAttributingCanvas.end();
+
+        mSink += mCanvas.getOpCount();
+    }
+
+    private void record(int component, long start) {
+        final long allocated = allocatedBytes() - start - mMeasurementOverhead;
+        if (allocated > 0) {
+            mAllocated[component] += allocated;
+        }
+    }
+
+    private long allocatedBytes() {
+        return mThreadBean.getThreadAllocatedBytes(mThreadId);
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * Forwards the painter's operations to the recording canvas, charging the
+     * bytes allocated since the previous operation to the part that draws
+     * this one.
+     */
+    private class AttributingCanvas implements RangeBarCanvas {
+
+        private long mStart;
+        private int mLastComponent;
+
+        void begin() {
+            mLastComponent = BAR;
+            mStart = allocatedBytes();
+        }
+
+        void end() {
+            record(mLastComponent, mStart);
+        }
+
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY, int paint) {
+            charge((paint == RangeBarPainter.PAINT_CONNECTING_LINE) ? CONNECTING_LINE : BAR);
+            mCanvas.drawLine(startX, startY, stopX, stopY, paint);
+            mStart = allocatedBytes();
+        }
+
+        @Override
+        public void drawLines(float[] pts, int count, int paint) {
+            charge(BAR);
+            mCanvas.drawLines(pts, count, paint);
+            mStart = allocatedBytes();
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, int paint) {
+            charge(THUMB);
+            mCanvas.drawCircle(cx, cy, radius, paint);
+            mStart = allocatedBytes();
+        }
+
+        @Override
+        public void drawImage(int image, float left, float top) {
+            charge(THUMB);
+            mCanvas.drawImage(image, left, top);
+            mStart = allocatedBytes();
+        }
+
+        @Override
+        public void save() {
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+        }
+
+        @Override
+        public void restore() {
+        }
+
+        private void charge(int component) {
+            record(component, mStart);
+            mLastComponent = component;
+        }
+    }
+}
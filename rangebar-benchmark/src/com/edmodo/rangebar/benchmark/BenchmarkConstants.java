@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import java.util.Random;
+
+/**
+ * Values shared by the benchmarks so that they all run against a bar of the
+ * same size and the same sequences of touch positions.
+ */
+final class BenchmarkConstants {
+
+    // Left margin and length of the bar, roughly a full-width bar on a
+    // 1080px-wide screen.
+    static final float MARGIN = 28f;
+    static final float BAR_LENGTH = 1024f;
+    static final float Y = 50f;
+
+    // Number of precomputed touch positions; a power of two so that the
+    // benchmarks can wrap around with a mask instead of a modulo.
+    static final int POSITION_COUNT = 1024;
+    static final int POSITION_MASK = POSITION_COUNT - 1;
+
+    static final long SEED = 42;
+
+    private BenchmarkConstants() {
+    }
+
+    /**
+     * Fills the array with positions sweeping across the bar and back again.
+     * 
+     * @param positions the array to fill
+     */
+    static void fillSweep(float[] positions) {
+
+        final int half = positions.length / 2;
+        for (int i = 0; i < half; i++) {
+            final float x = MARGIN + BAR_LENGTH * i / (half - 1);
+            positions[i] = x;
+            positions[positions.length - 1 - i] = x;
+        }
+    }
+
+    /**
+     * Fills the array with random positions on the bar.
+     * 
+     * @param positions the array to fill
+     * @param random the source of the positions
+     */
+    static void fillRandom(float[] positions, Random random) {
+
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = MARGIN + random.nextFloat() * BAR_LENGTH;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+import com.edmodo.rangebar.core.RecordingCanvas;
+import com.edmodo.rangebar.core.ThumbModel;
+
+/**
+ * Records the frames drawn by {@link RangeBarPainter} for a matrix of tick
+ * counts and thumb styles and checks them against fixed per-frame budgets:
+ * the number of draw operations, the overdraw (total drawn area relative to
+ * the area of the view) and the number of paint and image switches. A frame
+ * must cost the same number of operations for 2 ticks as for a million, so a
+ * change that makes a frame O(tickCount) fails the build.
+ * <p>
+ * Every tick is drawn, so ticks closer together than the weight of their
+ * lines overlap; the overdraw counts the area they cover together once, so
+ * a million ticks on a short bar stay within the budget.
+ */
+public final class DrawBudgetGuard {
+
+    // Budgets /////////////////////////////////////////////////////////////////
+
+    // Bar, ticks, connecting line and two thumbs.
+    private static final int MAX_OPS_PER_FRAME = 5;
+
+    // Bar, connecting line, normal thumb and pressed thumb.
+    private static final int MAX_PAINT_SWITCHES_PER_FRAME = 4;
+
+    // Normal and pressed thumb image.
+    private static final int MAX_IMAGE_SWITCHES_PER_FRAME = 2;
+
+    // Total drawn area divided by the area of the view.
+    private static final float MAX_OVERDRAW = 1.0f;
+
+    // Matrix //////////////////////////////////////////////////////////////////
+
+    private static final int[] TICK_COUNTS = { 2, 3, 10, 100, 1000, 100000, 1000000 };
+
+    private static final float[] BAR_WEIGHTS = { 2f, 8f };
+
+    // The default thumb images are 64x64 px; the default circle radius is
+    // 14dp at xhdpi.
+    private static final float IMAGE_SIZE = 64f;
+    private static final float CIRCLE_RADIUS = 28f;
+    private static final float TICK_HEIGHT = 48f;
+    private static final float CONNECTING_LINE_WEIGHT = 8f;
+
+    private static final float VIEW_HEIGHT = 100f;
+
+    // Main ////////////////////////////////////////////////////////////////////
+
+    public static void main(String[] args) {
+
+        int failures = 0;
+        for (int tickCount : TICK_COUNTS) {
+            for (float barWeight : BAR_WEIGHTS) {
+                failures += check(tickCount, barWeight, true);
+                failures += check(tickCount, barWeight, false);
+            }
+        }
+
+        if (failures > 0) {
+            System.err.println("DrawBudgetGuard: " + failures + " frame(s) over budget.");
+            System.exit(1);
+        }
+        System.out.println("DrawBudgetGuard: all frames within budget.");
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Records an idle frame and a frame with a pressed thumb for one style.
+     * 
+     * @return the number of frames that were over budget
+     */
+    private static int check(int tickCount, float barWeight, boolean useImages) {
+
+        final float margin = useImages ? IMAGE_SIZE / 2f : CIRCLE_RADIUS;
+        final float viewArea = (BenchmarkConstants.BAR_LENGTH + 2 * margin) * VIEW_HEIGHT;
+
+        final RangeBarController controller = new RangeBarController(tickCount, null);
+        controller.setThumbTargetRadius(48f);
+        controller.setLayout(margin, VIEW_HEIGHT / 2f, BenchmarkConstants.BAR_LENGTH);
+
+        final RangeBarPainter painter = new RangeBarPainter();
+        painter.setTickHeight(TICK_HEIGHT);
+
+        final RecordingCanvas canvas = new RecordingCanvas();
+        canvas.setStrokeWidth(RangeBarPainter.PAINT_BAR, barWeight);
+        canvas.setStrokeWidth(RangeBarPainter.PAINT_CONNECTING_LINE, CONNECTING_LINE_WEIGHT);
+
+        if (useImages) {
+            final float half = IMAGE_SIZE / 2f;
+            painter.setThumbImages(half, half, half, half);
+            canvas.setImageSize(RangeBarPainter.IMAGE_THUMB_NORMAL, IMAGE_SIZE, IMAGE_SIZE);
+            canvas.setImageSize(RangeBarPainter.IMAGE_THUMB_PRESSED, IMAGE_SIZE, IMAGE_SIZE);
+        } else {
+            painter.setThumbCircle(CIRCLE_RADIUS);
+        }
+
+        final String style = "tickCount=" + tickCount + " barWeight=" + barWeight
+                             + (useImages ? " images" : " circles");
+        int failures = 0;
+
+        canvas.reset();
+        painter.draw(canvas, controller);
+        failures += verify(style + " idle", canvas, viewArea);
+
+        final ThumbModel thumb = controller.getLeftThumb();
+        controller.onActionDown(thumb.getX(), thumb.getY());
+        controller.onActionMove(thumb.getX() + BenchmarkConstants.BAR_LENGTH / 2f);
+
+        canvas.reset();
+        painter.draw(canvas, controller);
+        failures += verify(style + " dragging", canvas, viewArea);
+
+        return failures;
+    }
+
+    private static int verify(String frame, RecordingCanvas canvas, float viewArea) {
+
+        final float overdraw = canvas.getDrawnArea() / viewArea;
+
+        final StringBuilder report = new StringBuilder();
+        report.append(frame)
+              .append(": ops=").append(canvas.getOpCount())
+              .append(" overdraw=").append(String.format("%.2f", overdraw))
+              .append(" paintSwitches=").append(canvas.getPaintSwitchCount())
+              .append(" imageSwitches=").append(canvas.getImageSwitchCount());
+
+        final boolean overBudget = canvas.getOpCount() > MAX_OPS_PER_FRAME
+                                   || overdraw > MAX_OVERDRAW
+                                   || canvas.getPaintSwitchCount() > MAX_PAINT_SWITCHES_PER_FRAME
+                                   || canvas.getImageSwitchCount() > MAX_IMAGE_SWITCHES_PER_FRAME;
+
+        if (overBudget) {
+            System.err.println(report.append(" OVER BUDGET"));
+            return 1;
+        }
+        System.out.println(report);
+        return 0;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import com.edmodo.rangebar.core.GestureRecording;
+import com.edmodo.rangebar.core.GestureReplayer;
+import com.edmodo.rangebar.core.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Replays every gesture recording (*.rbg, saved from
+ * RangeBar.stopGestureRecording()) in a directory against the controller
+ * and fails if the index changes differ from the recorded ones, either in
+ * their values or in the event that caused them, and so at a different
+ * recorded event time. Each recording must also survive a write and read
+ * unchanged and have non-decreasing sample times, and the directory must
+ * hold at least one recording.
+ * <p>
+ * Also reports how long the controller takes per event, measured after a
+ * warm-up. These durations are only reported: they are host JVM timings, not
+ * the device's, and the controller's index changes do not depend on time.
+ */
+public final class GestureReplayCheck {
+
+    private static final String EXTENSION = ".rbg";
+
+    private static final int WARMUP_REPLAYS = 200;
+    private static final int MEASURED_REPLAYS = 50;
+
+    // Main ////////////////////////////////////////////////////////////////////
+
+    public static void main(String[] args) throws IOException {
+
+        final File directory = new File(args.length > 0 ? args[0] : "gestures");
+        final File[] files = directory.listFiles();
+
+        int checked = 0;
+        int failures = 0;
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.getName().endsWith(EXTENSION)) {
+                    failures += check(file);
+                    checked++;
+                }
+            }
+        }
+
+        if (checked == 0) {
+            System.err.println("GestureReplayCheck: no recordings found in " + directory + ".");
+            System.exit(1);
+        }
+        if (failures > 0) {
+            System.err.println("GestureReplayCheck: " + failures + " of " + checked + " recording(s) diverged.");
+            System.exit(1);
+        }
+        System.out.println("GestureReplayCheck: " + checked + " recording(s) replayed identically.");
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static int check(File file) throws IOException {
+
+        final GestureRecording recording;
+        final InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            recording = GestureRecording.readFrom(in);
+        } finally {
+            in.close();
+        }
+
+        final String formatError = checkFormat(recording);
+        if (formatError != null) {
+            System.err.println(file.getName() + ": " + formatError);
+            return 1;
+        }
+
+        final GestureReplayer replayer = new GestureReplayer(recording);
+        replayer.replay();
+
+        final int mismatch = replayer.findMismatch();
+        if (mismatch >= 0) {
+            final String recorded = (mismatch < recording.getIndexChangeCount())
+                    ? describe(recording,
+                               recording.getIndexChangeEvent(mismatch),
+                               recording.getIndexChangeLeftIndex(mismatch),
+                               recording.getIndexChangeRightIndex(mismatch))
+                    : "none";
+            final String replayed = (mismatch < replayer.getIndexChangeCount())
+                    ? describe(recording,
+                               replayer.getIndexChangeEvent(mismatch),
+                               replayer.getIndexChangeLeftIndex(mismatch),
+                               replayer.getIndexChangeRightIndex(mismatch))
+                    : "none";
+            System.err.println(file.getName() + ": index change " + mismatch + " differs: recorded "
+                    + recorded + ", replayed " + replayed);
+            return 1;
+        }
+
+        for (int i = 0; i < WARMUP_REPLAYS; i++) {
+            replayer.replay();
+        }
+        final Histogram durations = new Histogram();
+        for (int i = 0; i < MEASURED_REPLAYS; i++) {
+            replayer.replay();
+            for (int event = 0; event < recording.getEventCount(); event++) {
+                durations.record(replayer.getEventDuration(event));
+            }
+        }
+
+        System.out.println(file.getName() + ": " + recording.getEventCount() + " events, "
+                + recording.getSampleCount() + " samples, "
+                + recording.getIndexChangeCount() + " index changes; ns/event p50 "
+                + durations.getPercentile(50) + ", p99 " + durations.getPercentile(99)
+                + ", max " + durations.getMax());
+        return 0;
+    }
+
+    /**
+     * Checks that the sample times do not go back and that writing and reading
+     * the recording gives back the same recording.
+     * 
+     * @return a description of the first problem, or null if there is none
+     */
+    private static String checkFormat(GestureRecording recording) throws IOException {
+
+        for (int sample = 1; sample < recording.getSampleCount(); sample++) {
+            if (recording.getSampleTime(sample) < recording.getSampleTime(sample - 1)) {
+                return "sample " + sample + " is older than the one before it.";
+            }
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.writeTo(out);
+        final GestureRecording copy = GestureRecording.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        if (copy.getTickCount() != recording.getTickCount()
+                || copy.getLeftIndex() != recording.getLeftIndex()
+                || copy.getRightIndex() != recording.getRightIndex()
+                || copy.getMarginLeft() != recording.getMarginLeft()
+                || copy.getY() != recording.getY()
+                || copy.getBarLength() != recording.getBarLength()
+                || copy.getThumbTargetRadius() != recording.getThumbTargetRadius()
+                || copy.getEventCount() != recording.getEventCount()
+                || copy.getSampleCount() != recording.getSampleCount()
+                || copy.getIndexChangeCount() != recording.getIndexChangeCount()) {
+            return "initial state or counts differ after a write and read.";
+        }
+        for (int event = 0; event < recording.getEventCount(); event++) {
+            if (copy.getAction(event) != recording.getAction(event)
+                    || copy.getFirstSample(event) != recording.getFirstSample(event)) {
+                return "event " + event + " differs after a write and read.";
+            }
+        }
+        for (int sample = 0; sample < recording.getSampleCount(); sample++) {
+            if (copy.getSampleTime(sample) != recording.getSampleTime(sample)
+                    || copy.getSampleX(sample) != recording.getSampleX(sample)
+                    || copy.getSampleY(sample) != recording.getSampleY(sample)) {
+                return "sample " + sample + " differs after a write and read.";
+            }
+        }
+        for (int i = 0; i < recording.getIndexChangeCount(); i++) {
+            if (copy.getIndexChangeEvent(i) != recording.getIndexChangeEvent(i)
+                    || copy.getIndexChangeLeftIndex(i) != recording.getIndexChangeLeftIndex(i)
+                    || copy.getIndexChangeRightIndex(i) != recording.getIndexChangeRightIndex(i)) {
+                return "index change " + i + " differs after a write and read.";
+            }
+        }
+        return null;
+    }
+
+    private static String describe(GestureRecording recording, int event, int leftIndex, int rightIndex) {
+        return "[" + leftIndex + ", " + rightIndex + "] at event " + event
+                + " (+" + (recording.getEventTime(event) - recording.getSampleTime(0)) + " ms)";
+    }
+}
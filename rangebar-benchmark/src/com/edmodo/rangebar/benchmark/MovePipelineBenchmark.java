@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.ThumbModel;
+
+/**
+ * Measures the full move-event pipeline of a drag: moving the pressed thumb,
+ * swapping the thumbs when they cross, recomputing both indices and
+ * dispatching the listener whenever an index changes. The drag sweeps the
+ * whole bar back and forth, so the pressed thumb crosses the other one twice
+ * per sweep.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovePipelineBenchmark {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    @Param({ "3", "100", "10000", "1000000" })
+    public int tickCount;
+
+    private RangeBarController mController;
+
+    private final float[] mPositions = new float[BenchmarkConstants.POSITION_COUNT];
+
+    private int mNext;
+
+    // Accumulated by the listener so that the dispatch cannot be optimized
+    // away.
+    private int mIndexSum;
+
+    private final RangeBarController.OnIndexChangeListener mListener = new RangeBarController.OnIndexChangeListener() {
+        @Override
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+            mIndexSum += leftThumbIndex + rightThumbIndex;
+        }
+    };
+
+    // Setup ///////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+
+        mController = new RangeBarController(tickCount, mListener);
+        mController.setThumbTargetRadius(48f);
+        mController.setLayout(BenchmarkConstants.MARGIN, BenchmarkConstants.Y, BenchmarkConstants.BAR_LENGTH);
+        mController.setThumbIndices(tickCount / 3, 2 * tickCount / 3);
+
+        // Press the left thumb; it stays pressed for the whole benchmark.
+        final ThumbModel thumb = mController.getLeftThumb();
+        mController.onActionDown(thumb.getX(), thumb.getY());
+
+        BenchmarkConstants.fillSweep(mPositions);
+    }
+
+    // Benchmarks //////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public int move() {
+        mController.onActionMove(mPositions[mNext++ & BenchmarkConstants.POSITION_MASK]);
+        return mIndexSum;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.edmodo.rangebar.core.TickGeometry;
+
+/**
+ * Measures the nearest-tick lookup used on every move event. The uniform
+ * benchmark sweeps the bar from left to right like a steady drag; the
+ * non-uniform benchmark looks up randomly distributed positions, which defeats
+ * any locality between consecutive lookups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestTickBenchmark {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    @Param({ "3", "100", "10000", "1000000" })
+    public int tickCount;
+
+    private TickGeometry mGeometry;
+
+    private final float[] mUniformPositions = new float[BenchmarkConstants.POSITION_COUNT];
+    private final float[] mNonUniformPositions = new float[BenchmarkConstants.POSITION_COUNT];
+
+    private int mNext;
+
+    // Setup ///////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+
+        mGeometry = new TickGeometry(BenchmarkConstants.MARGIN, BenchmarkConstants.BAR_LENGTH, tickCount);
+
+        BenchmarkConstants.fillSweep(mUniformPositions);
+        BenchmarkConstants.fillRandom(mNonUniformPositions, new Random(BenchmarkConstants.SEED));
+    }
+
+    // Benchmarks //////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public int uniform() {
+        final float x = mUniformPositions[mNext++ & BenchmarkConstants.POSITION_MASK];
+        return mGeometry.getNearestTickIndex(x);
+    }
+
+    @Benchmark
+    public int nonUniform() {
+        final float x = mNonUniformPositions[mNext++ & BenchmarkConstants.POSITION_MASK];
+        return mGeometry.getNearestTickIndex(x);
+    }
+
+    @Benchmark
+    public float nearestCoordinate() {
+        final float x = mNonUniformPositions[mNext++ & BenchmarkConstants.POSITION_MASK];
+        return mGeometry.getNearestTickCoordinate(x);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.edmodo.rangebar.core.RangeBarController;
+
+/**
+ * Measures the work done by RangeBar when its state is saved and restored
+ * (for example on rotation) and when a client calls one of the setters that
+ * rebuild the thumb positions. The Bundle itself is Android-only, so saving
+ * copies the same values RangeBar puts into it into a plain array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+
+    // Indices into the saved state, mirroring the keys used by RangeBar.
+    private static final int TICK_COUNT = 0;
+    private static final int LEFT_INDEX = 1;
+    private static final int RIGHT_INDEX = 2;
+    private static final int FIRST_SET_TICK_COUNT = 3;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    @Param({ "3", "100", "10000", "1000000" })
+    public int tickCount;
+
+    private RangeBarController mController;
+
+    private final int[] mState = new int[4];
+
+    private int mIndexSum;
+
+    private final RangeBarController.OnIndexChangeListener mListener = new RangeBarController.OnIndexChangeListener() {
+        @Override
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+            mIndexSum += leftThumbIndex + rightThumbIndex;
+        }
+    };
+
+    // Setup ///////////////////////////////////////////////////////////////////
+
+    @Setup
+    public void setUp() {
+
+        mController = new RangeBarController(tickCount, mListener);
+        mController.setLayout(BenchmarkConstants.MARGIN, BenchmarkConstants.Y, BenchmarkConstants.BAR_LENGTH);
+        mController.setThumbIndices(tickCount / 3, 2 * tickCount / 3);
+
+        save();
+    }
+
+    // Benchmarks //////////////////////////////////////////////////////////////
+
+    @Benchmark
+    public int[] save() {
+
+        mState[TICK_COUNT] = mController.getTickCount();
+        mState[LEFT_INDEX] = mController.getLeftIndex();
+        mState[RIGHT_INDEX] = mController.getRightIndex();
+        mState[FIRST_SET_TICK_COUNT] = mController.isFirstSetTickCount() ? 1 : 0;
+
+        return mState;
+    }
+
+    @Benchmark
+    public int restore() {
+
+        mController.restoreTickCount(mState[TICK_COUNT], mState[FIRST_SET_TICK_COUNT] != 0);
+        mController.setThumbIndices(mState[LEFT_INDEX], mState[RIGHT_INDEX]);
+
+        return mIndexSum;
+    }
+
+    @Benchmark
+    public int setTickCount() {
+
+        // Alternate between two tick counts so that every call changes it.
+        final int newTickCount = (mController.getTickCount() == tickCount) ? tickCount + 1 : tickCount;
+        mController.setTickCount(newTickCount);
+
+        return mIndexSum;
+    }
+
+    @Benchmark
+    public int setThumbIndices() {
+
+        // Alternate between two ranges so that every call moves the thumbs.
+        final int leftIndex = (mController.getLeftIndex() == 0) ? 1 : 0;
+        mController.setThumbIndices(leftIndex, tickCount - 1);
+
+        return mIndexSum;
+    }
+
+    @Benchmark
+    public RangeBarController create() {
+
+        final RangeBarController controller = new RangeBarController(tickCount, mListener);
+        controller.setLayout(BenchmarkConstants.MARGIN, BenchmarkConstants.Y, BenchmarkConstants.BAR_LENGTH);
+
+        return controller;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * A bounded, lock-free queue of small events for handing work from one
+ * thread to exactly one other, e.g. touch positions from the UI thread to a
+ * render thread. Each event is a type, two floats and a long, stored in
+ * preallocated arrays, so neither side allocates or blocks. Only one thread
+ * may call {@link #offer} and only one thread may call {@link #poll}.
+ * <p>
+ * The producer publishes an event by advancing the tail after writing its
+ * slot, and the consumer frees it by advancing the head after reading it;
+ * both are volatile, which orders the slot accesses between the two threads.
+ */
+public class EventQueue {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final int mMask;
+
+    private final int[] mTypes;
+    private final float[] mX;
+    private final float[] mY;
+    private final long[] mValues;
+
+    // Written only by the consumer and the producer respectively.
+    private volatile long mHead;
+    private volatile long mTail;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * @param capacity the maximum number of queued events; rounded up to a
+     *            power of two
+     */
+    public EventQueue(int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity less than 1; invalid capacity.");
+        }
+
+        final int size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        mMask = size - 1;
+        mTypes = new int[size];
+        mX = new float[size];
+        mY = new float[size];
+        mValues = new long[size];
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Adds an event. Called by the producer thread only.
+     * 
+     * @return false if the queue is full and the event was dropped
+     */
+    public boolean offer(int type, float x, float y, long value) {
+
+        final long tail = mTail;
+        if (tail - mHead > mMask) {
+            return false;
+        }
+
+        final int slot = (int) tail & mMask;
+        mTypes[slot] = type;
+        mX[slot] = x;
+        mY[slot] = y;
+        mValues[slot] = value;
+
+        mTail = tail + 1;
+        return true;
+    }
+
+    /**
+     * Removes the oldest event. Called by the consumer thread only.
+     * 
+     * @param out receives the event
+     * @return false if the queue was empty
+     */
+    public boolean poll(EventQueue.Event out) {
+
+        final long head = mHead;
+        if (head == mTail) {
+            return false;
+        }
+
+        final int slot = (int) head & mMask;
+        out.mType = mTypes[slot];
+        out.mX = mX[slot];
+        out.mY = mY[slot];
+        out.mValue = mValues[slot];
+
+        mHead = head + 1;
+        return true;
+    }
+
+    /**
+     * Returns whether the queue is empty. Exact only on the consumer thread;
+     * elsewhere a hint.
+     */
+    public boolean isEmpty() {
+        return mHead == mTail;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * A polled event, reused by the consumer.
+     */
+    public static class Event {
+
+        int mType;
+        float mX;
+        float mY;
+        long mValue;
+
+        public int getType() {
+            return mType;
+        }
+
+        public float getX() {
+            return mX;
+        }
+
+        public float getY() {
+            return mY;
+        }
+
+        public long getValue() {
+            return mValue;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A recorded stream of touch events fed to a RangeBar, together with the
+ * state of the bar when recording started and the index changes the events
+ * caused. Recordings are captured on a device and replayed on the host with
+ * {@link GestureReplayer}.
+ * <p>
+ * Each event has an action and one or more samples: the historical samples
+ * batched into the event, oldest first, followed by the event's own
+ * position. Sample times are in milliseconds, like MotionEvent event times.
+ * <p>
+ * The binary format, written big-endian, is:
+ * 
+ * <pre>
+ * int    magic ('RBGR'), short version
+ * int    tickCount, leftIndex, rightIndex
+ * float  marginLeft, y, barLength, thumbTargetRadius
+ * int    eventCount, indexChangeCount
+ * long   time of the first sample
+ * per event:        byte action, unsigned short sampleCount,
+ *                   per sample: int time since the previous sample, float x, float y
+ * per index change: int event, int leftIndex, int rightIndex
+ * </pre>
+ */
+public class GestureRecording {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // The same values as the MotionEvent actions.
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    private static final int MAGIC = 0x52424752;
+    private static final int VERSION = 1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The sample count of an event is written as an unsigned short.
+    private static final int MAX_SAMPLES_PER_EVENT = 0xffff;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private int mTickCount;
+    private int mLeftIndex;
+    private int mRightIndex;
+    private float mMarginLeft;
+    private float mY;
+    private float mBarLength;
+    private float mThumbTargetRadius;
+
+    private int mEventCount;
+    private byte[] mActions = new byte[INITIAL_CAPACITY];
+
+    // The first sample of each event; the samples of event i end where those
+    // of event i + 1 start.
+    private int[] mFirstSamples = new int[INITIAL_CAPACITY + 1];
+
+    private int mSampleCount;
+    private long[] mTimes = new long[INITIAL_CAPACITY];
+    private float[] mXs = new float[INITIAL_CAPACITY];
+    private float[] mYs = new float[INITIAL_CAPACITY];
+
+    private int mIndexChangeCount;
+    private int[] mIndexChanges = new int[INITIAL_CAPACITY * 3];
+
+    // Constructors ////////////////////////////////////////////////////////////
+
+    /**
+     * Starts a recording of the given controller, capturing its current
+     * layout and indices.
+     * 
+     * @param controller the controller the recorded events are fed to
+     */
+    public GestureRecording(RangeBarController controller) {
+
+        final TickGeometry geometry = controller.getGeometry();
+
+        mTickCount = controller.getTickCount();
+        mLeftIndex = controller.getLeftIndex();
+        mRightIndex = controller.getRightIndex();
+        mMarginLeft = geometry.getLeftX();
+        mY = controller.getY();
+        mBarLength = geometry.getRightX() - geometry.getLeftX();
+        mThumbTargetRadius = controller.getLeftThumb().getTargetRadius();
+    }
+
+    private GestureRecording() {
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Starts a new event. Its samples are added with
+     * {@link #addSample(long, float, float)}.
+     * 
+     * @param action one of the ACTION constants
+     */
+    public void addEvent(int action) {
+
+        if (mEventCount == mActions.length) {
+            final byte[] actions = new byte[mEventCount * 2];
+            System.arraycopy(mActions, 0, actions, 0, mEventCount);
+            mActions = actions;
+            mFirstSamples = grow(mFirstSamples, mEventCount * 2 + 1);
+        }
+
+        mActions[mEventCount] = (byte) action;
+        mFirstSamples[mEventCount] = mSampleCount;
+        mEventCount++;
+        mFirstSamples[mEventCount] = mSampleCount;
+    }
+
+    /**
+     * Adds a sample to the last event.
+     * 
+     * @param time the time of the sample in milliseconds
+     * @param x the x-coordinate of the sample
+     * @param y the y-coordinate of the sample
+     */
+    public void addSample(long time, float x, float y) {
+
+        if (mEventCount == 0) {
+            throw new IllegalStateException("addEvent() must be called before addSample().");
+        }
+
+        if (mSampleCount == mTimes.length) {
+            final long[] times = new long[mSampleCount * 2];
+            final float[] xs = new float[mSampleCount * 2];
+            final float[] ys = new float[mSampleCount * 2];
+            System.arraycopy(mTimes, 0, times, 0, mSampleCount);
+            System.arraycopy(mXs, 0, xs, 0, mSampleCount);
+            System.arraycopy(mYs, 0, ys, 0, mSampleCount);
+            mTimes = times;
+            mXs = xs;
+            mYs = ys;
+        }
+
+        mTimes[mSampleCount] = time;
+        mXs[mSampleCount] = x;
+        mYs[mSampleCount] = y;
+        mSampleCount++;
+        mFirstSamples[mEventCount] = mSampleCount;
+    }
+
+    /**
+     * Records that the last event changed the indices to the given values.
+     * 
+     * @param leftIndex the new left index
+     * @param rightIndex the new right index
+     */
+    public void addIndexChange(int leftIndex, int rightIndex) {
+
+        if (mEventCount == 0) {
+            // Changes made before the first touch event are part of the
+            // initial state.
+            mLeftIndex = leftIndex;
+            mRightIndex = rightIndex;
+            return;
+        }
+
+        if (mIndexChangeCount * 3 == mIndexChanges.length) {
+            mIndexChanges = grow(mIndexChanges, mIndexChanges.length * 2);
+        }
+
+        mIndexChanges[mIndexChangeCount * 3] = mEventCount - 1;
+        mIndexChanges[mIndexChangeCount * 3 + 1] = leftIndex;
+        mIndexChanges[mIndexChangeCount * 3 + 2] = rightIndex;
+        mIndexChangeCount++;
+    }
+
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    public int getLeftIndex() {
+        return mLeftIndex;
+    }
+
+    public int getRightIndex() {
+        return mRightIndex;
+    }
+
+    public float getMarginLeft() {
+        return mMarginLeft;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public float getBarLength() {
+        return mBarLength;
+    }
+
+    public float getThumbTargetRadius() {
+        return mThumbTargetRadius;
+    }
+
+    public int getEventCount() {
+        return mEventCount;
+    }
+
+    public int getAction(int event) {
+        return mActions[event];
+    }
+
+    /**
+     * Gets the index of the first sample of an event.
+     */
+    public int getFirstSample(int event) {
+        return mFirstSamples[event];
+    }
+
+    /**
+     * Gets the index of the last sample of an event, the event's own
+     * position.
+     */
+    public int getLastSample(int event) {
+        return mFirstSamples[event + 1] - 1;
+    }
+
+    public int getSampleCount() {
+        return mSampleCount;
+    }
+
+    public long getSampleTime(int sample) {
+        return mTimes[sample];
+    }
+
+    public float getSampleX(int sample) {
+        return mXs[sample];
+    }
+
+    public float getSampleY(int sample) {
+        return mYs[sample];
+    }
+
+    /**
+     * Gets the time of an event, i.e. of its last sample.
+     */
+    public long getEventTime(int event) {
+        return mTimes[getLastSample(event)];
+    }
+
+    public int getIndexChangeCount() {
+        return mIndexChangeCount;
+    }
+
+    /**
+     * Gets the event that caused an index change.
+     */
+    public int getIndexChangeEvent(int indexChange) {
+        return mIndexChanges[indexChange * 3];
+    }
+
+    public int getIndexChangeLeftIndex(int indexChange) {
+        return mIndexChanges[indexChange * 3 + 1];
+    }
+
+    public int getIndexChangeRightIndex(int indexChange) {
+        return mIndexChanges[indexChange * 3 + 2];
+    }
+
+    /**
+     * Writes the recording in the binary format described above.
+     * 
+     * @param out the stream to write to; not closed
+     * @throws IOException if writing fails or an event has more samples than
+     *             the format can hold
+     */
+    public void writeTo(OutputStream out) throws IOException {
+
+        for (int event = 0; event < mEventCount; event++) {
+            if (mFirstSamples[event + 1] - mFirstSamples[event] > MAX_SAMPLES_PER_EVENT) {
+                throw new IOException("Event " + event + " has more than " + MAX_SAMPLES_PER_EVENT + " samples.");
+            }
+        }
+
+        final DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+
+        data.writeInt(mTickCount);
+        data.writeInt(mLeftIndex);
+        data.writeInt(mRightIndex);
+        data.writeFloat(mMarginLeft);
+        data.writeFloat(mY);
+        data.writeFloat(mBarLength);
+        data.writeFloat(mThumbTargetRadius);
+
+        data.writeInt(mEventCount);
+        data.writeInt(mIndexChangeCount);
+        data.writeLong(mSampleCount > 0 ? mTimes[0] : 0);
+
+        long previousTime = mSampleCount > 0 ? mTimes[0] : 0;
+        for (int event = 0; event < mEventCount; event++) {
+
+            data.writeByte(mActions[event]);
+            data.writeShort(mFirstSamples[event + 1] - mFirstSamples[event]);
+
+            for (int sample = mFirstSamples[event]; sample < mFirstSamples[event + 1]; sample++) {
+                data.writeInt((int) (mTimes[sample] - previousTime));
+                data.writeFloat(mXs[sample]);
+                data.writeFloat(mYs[sample]);
+                previousTime = mTimes[sample];
+            }
+        }
+
+        for (int i = 0; i < mIndexChangeCount * 3; i++) {
+            data.writeInt(mIndexChanges[i]);
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads a recording written by {@link #writeTo(OutputStream)}.
+     * 
+     * @param in the stream to read from; not closed
+     * @return the recording
+     * @throws IOException if reading fails or the data is not a recording
+     */
+    public static GestureRecording readFrom(InputStream in) throws IOException {
+
+        final DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a gesture recording.");
+        }
+        final int version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported gesture recording version " + version + ".");
+        }
+
+        final GestureRecording recording = new GestureRecording();
+
+        recording.mTickCount = data.readInt();
+        recording.mLeftIndex = data.readInt();
+        recording.mRightIndex = data.readInt();
+        recording.mMarginLeft = data.readFloat();
+        recording.mY = data.readFloat();
+        recording.mBarLength = data.readFloat();
+        recording.mThumbTargetRadius = data.readFloat();
+
+        final int eventCount = data.readInt();
+        final int indexChangeCount = data.readInt();
+        long time = data.readLong();
+
+        for (int event = 0; event < eventCount; event++) {
+
+            recording.addEvent(data.readByte());
+
+            final int sampleCount = data.readUnsignedShort();
+            for (int sample = 0; sample < sampleCount; sample++) {
+                time += data.readInt();
+                recording.addSample(time, data.readFloat(), data.readFloat());
+            }
+        }
+
+        recording.mIndexChanges = new int[Math.max(indexChangeCount * 3, 3)];
+        for (int i = 0; i < indexChangeCount * 3; i++) {
+            recording.mIndexChanges[i] = data.readInt();
+        }
+        recording.mIndexChangeCount = indexChangeCount;
+
+        return recording;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Copies an array into a longer one. Arrays.copyOf is not available on
+     * API 7 and 8.
+     */
+    private static int[] grow(int[] array, int length) {
+        final int[] grown = new int[length];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
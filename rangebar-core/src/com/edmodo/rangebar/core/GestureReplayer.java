@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Replays a {@link GestureRecording} against a fresh
+ * {@link RangeBarController} set up like the recorded RangeBar, the same way
+ * the view forwards touch events to it. The replay is deterministic, so the
+ * index changes it produces can be compared with the recorded ones, and the
+ * time spent handling each event can be used as a performance fixture.
+ * <p>
+ * Like the view, the controller only sees the position of each move event;
+ * the historical samples are kept in the recording for consumers that use
+ * them. Replaying a recording does not allocate after the first replay.
+ */
+public class GestureReplayer {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final GestureRecording mRecording;
+    private final RangeBarController mController;
+
+    // Index changes of the last replay, as (event, left, right) triples.
+    private final int[] mIndexChanges;
+    private int mIndexChangeCount;
+
+    // The event being replayed, or -1 while the controller is being set up.
+    private int mCurrentEvent = -1;
+
+    private final long[] mEventDurations;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public GestureReplayer(GestureRecording recording) {
+
+        mRecording = recording;
+
+        mController = new RangeBarController(recording.getTickCount(),
+                                             new RangeBarController.OnIndexChangeListener() {
+                                                 @Override
+                                                 public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+                                                     recordIndexChange(leftThumbIndex, rightThumbIndex);
+                                                 }
+                                             });
+
+        // The controller reports at most one index change per event.
+        mIndexChanges = new int[recording.getEventCount() * 3];
+        mEventDurations = new long[recording.getEventCount()];
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Resets the controller to the recorded initial state and feeds it all
+     * recorded events.
+     */
+    public void replay() {
+
+        mCurrentEvent = -1;
+        mIndexChangeCount = 0;
+
+        mController.restoreTickCount(mRecording.getTickCount(), false);
+        mController.setThumbTargetRadius(mRecording.getThumbTargetRadius());
+        mController.setThumbIndices(mRecording.getLeftIndex(), mRecording.getRightIndex());
+        mController.setLayout(mRecording.getMarginLeft(), mRecording.getY(), mRecording.getBarLength());
+
+        // Release a thumb left pressed by a previous replay.
+        mController.getLeftThumb().release();
+        mController.getRightThumb().release();
+
+        final int eventCount = mRecording.getEventCount();
+        for (int event = 0; event < eventCount; event++) {
+
+            mCurrentEvent = event;
+
+            final int sample = mRecording.getLastSample(event);
+            final float x = mRecording.getSampleX(sample);
+            final float y = mRecording.getSampleY(sample);
+
+            final long start = System.nanoTime();
+
+            switch (mRecording.getAction(event)) {
+
+                case GestureRecording.ACTION_DOWN:
+                    mController.onActionDown(x, y);
+                    break;
+
+                case GestureRecording.ACTION_UP:
+                case GestureRecording.ACTION_CANCEL:
+                    mController.onActionUp(x, y);
+                    break;
+
+                case GestureRecording.ACTION_MOVE:
+                    mController.onActionMove(x);
+                    break;
+
+                default:
+                    break;
+            }
+
+            mEventDurations[event] = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Compares the index changes of the last replay with the recorded ones.
+     * 
+     * @return the first index change that differs in its indices or in the
+     *         event that caused it, or -1 if the replay matches the recording
+     */
+    public int findMismatch() {
+
+        final int count = Math.min(mIndexChangeCount, mRecording.getIndexChangeCount());
+        for (int i = 0; i < count; i++) {
+            if (mIndexChanges[i * 3] != mRecording.getIndexChangeEvent(i)
+                    || mIndexChanges[i * 3 + 1] != mRecording.getIndexChangeLeftIndex(i)
+                    || mIndexChanges[i * 3 + 2] != mRecording.getIndexChangeRightIndex(i)) {
+                return i;
+            }
+        }
+        return (mIndexChangeCount == mRecording.getIndexChangeCount()) ? -1 : count;
+    }
+
+    public RangeBarController getController() {
+        return mController;
+    }
+
+    public int getIndexChangeCount() {
+        return mIndexChangeCount;
+    }
+
+    public int getIndexChangeEvent(int indexChange) {
+        return mIndexChanges[indexChange * 3];
+    }
+
+    public int getIndexChangeLeftIndex(int indexChange) {
+        return mIndexChanges[indexChange * 3 + 1];
+    }
+
+    public int getIndexChangeRightIndex(int indexChange) {
+        return mIndexChanges[indexChange * 3 + 2];
+    }
+
+    /**
+     * Gets how long the controller took to handle an event in the last
+     * replay, in nanoseconds.
+     */
+    public long getEventDuration(int event) {
+        return mEventDurations[event];
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void recordIndexChange(int leftThumbIndex, int rightThumbIndex) {
+
+        if (mCurrentEvent < 0 || mIndexChangeCount * 3 == mIndexChanges.length) {
+            return;
+        }
+
+        mIndexChanges[mIndexChangeCount * 3] = mCurrentEvent;
+        mIndexChanges[mIndexChangeCount * 3 + 1] = leftThumbIndex;
+        mIndexChanges[mIndexChangeCount * 3 + 2] = rightThumbIndex;
+        mIndexChangeCount++;
+    }
+}
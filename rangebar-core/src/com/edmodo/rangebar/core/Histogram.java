@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * A histogram of durations with a fixed set of power-of-two buckets. Bucket 0
+ * counts zero values and bucket i counts values from 2^(i-1) up to 2^i - 1;
+ * values beyond the last bucket are counted in the last bucket. Recording a
+ * value never allocates.
+ */
+public class Histogram {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // With nanosecond values the last bucket starts at about 4.6 minutes.
+    public static final int BUCKET_COUNT = 40;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final long[] mBuckets = new long[BUCKET_COUNT];
+
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Adds a value to the histogram. Negative values are counted as zero.
+     * 
+     * @param value the value to add, typically a duration in nanoseconds
+     */
+    public void record(long value) {
+
+        if (value < 0) {
+            value = 0;
+        }
+
+        mBuckets[getBucket(value)]++;
+        mCount++;
+        mSum += value;
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    /**
+     * Gets the index of the bucket the given value is counted in.
+     * 
+     * @param value a non-negative value
+     * @return the index of the bucket
+     */
+    public static int getBucket(long value) {
+        return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Gets the largest value counted in the given bucket.
+     * 
+     * @param bucket the index of the bucket
+     * @return the upper bound of the bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return (bucket == BUCKET_COUNT - 1) ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    public long getBucketCount(int bucket) {
+        return mBuckets[bucket];
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getSum() {
+        return mSum;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMean() {
+        return (mCount == 0) ? 0 : mSum / mCount;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in,
+     * capped at the largest recorded value.
+     * 
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated value; 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+
+        if (mCount == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(percentile / 100.0 * mCount);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(getBucketUpperBound(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * Copies the contents of this histogram into another one.
+     * 
+     * @param target the histogram to overwrite
+     */
+    public void copyTo(Histogram target) {
+
+        System.arraycopy(mBuckets, 0, target.mBuckets, 0, BUCKET_COUNT);
+        target.mCount = mCount;
+        target.mSum = mSum;
+        target.mMax = mMax;
+    }
+
+    /**
+     * Adds the values counted by another histogram to this one, e.g. to
+     * combine the metrics of several RangeBars.
+     * 
+     * @param other the histogram to add
+     */
+    public void add(Histogram other) {
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets[i] += other.mBuckets[i];
+        }
+        mCount += other.mCount;
+        mSum += other.mSum;
+        if (other.mMax > mMax) {
+            mMax = other.mMax;
+        }
+    }
+
+    public void reset() {
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+}
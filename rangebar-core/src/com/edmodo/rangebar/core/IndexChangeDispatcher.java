@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Forwards the index changes of a {@link RangeBarController} to every
+ * listener in a {@link ListenerArray}, without allocating. Subclasses make
+ * the call into a single listener, e.g. passing the RangeBar it belongs to:
+ * 
+ * <pre>
+ * new IndexChangeDispatcher&lt;Listener&gt;(mListeners) {
+ *     protected void dispatch(Listener listener, int left, int right) {
+ *         listener.onChange(view, left, right);
+ *     }
+ * };
+ * </pre>
+ * 
+ * @param <T> the type of the listeners
+ */
+public abstract class IndexChangeDispatcher<T> implements RangeBarController.OnIndexChangeListener {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final ListenerArray<T> mListeners;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public IndexChangeDispatcher(ListenerArray<T> listeners) {
+        mListeners = listeners;
+    }
+
+    // RangeBarController.OnIndexChangeListener Methods ////////////////////////
+
+    /**
+     * Calls every listener with the new indices, in the order they were
+     * added.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+
+        final Object[] listeners = mListeners.getArray();
+        for (int i = 0; i < listeners.length; i++) {
+            dispatch((T) listeners[i], leftThumbIndex, rightThumbIndex);
+        }
+    }
+
+    // Protected Methods ///////////////////////////////////////////////////////
+
+    /**
+     * Calls a single listener.
+     * 
+     * @param listener the listener to call
+     * @param leftThumbIndex the new index of the left thumb
+     * @param rightThumbIndex the new index of the right thumb
+     */
+    protected abstract void dispatch(T listener, int leftThumbIndex, int rightThumbIndex);
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Maps the indices of a {@link RangeModel} onto the ticks of a RangeBar. The
+ * model indices from start to end are spread linearly over the bar's ticks
+ * and rounded to the nearest one, so the same class describes an overview bar
+ * (the whole model on fewer ticks) and a zoomed detail bar (a window of the
+ * model, one tick per index). Model indices outside the window are clamped to
+ * the first or last tick.
+ * <p>
+ * Subclasses may override both methods for a non-linear mapping.
+ */
+public class IndexMapping {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final int mModelStart;
+    private final int mModelEnd;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a mapping of the model indices from modelStart to modelEnd,
+     * inclusive, onto the ticks of a bar.
+     * 
+     * @param modelStart the model index shown at the bar's first tick
+     * @param modelEnd the model index shown at the bar's last tick; must be
+     *            greater than modelStart
+     */
+    public IndexMapping(int modelStart, int modelEnd) {
+
+        if (modelEnd <= modelStart) {
+            throw new IllegalArgumentException("modelEnd must be greater than modelStart.");
+        }
+
+        mModelStart = modelStart;
+        mModelEnd = modelEnd;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public int getModelStart() {
+        return mModelStart;
+    }
+
+    public int getModelEnd() {
+        return mModelEnd;
+    }
+
+    /**
+     * Gets the tick of the bar nearest to a model index.
+     * 
+     * @param modelIndex the index in the model
+     * @param tickCount the number of ticks of the bar
+     * @return the tick index, between 0 and tickCount - 1
+     */
+    public int toTickIndex(int modelIndex, int tickCount) {
+
+        if (modelIndex <= mModelStart) {
+            return 0;
+        }
+        if (modelIndex >= mModelEnd) {
+            return tickCount - 1;
+        }
+        return divideRounded((long) (modelIndex - mModelStart) * (tickCount - 1), mModelEnd - mModelStart);
+    }
+
+    /**
+     * Gets the model index nearest to a tick of the bar.
+     * 
+     * @param tickIndex the index of the tick, between 0 and tickCount - 1
+     * @param tickCount the number of ticks of the bar
+     * @return the index in the model
+     */
+    public int toModelIndex(int tickIndex, int tickCount) {
+        return mModelStart + divideRounded((long) tickIndex * (mModelEnd - mModelStart), tickCount - 1);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Divides two non-negative numbers, rounding half up.
+     */
+    private static int divideRounded(long numerator, long denominator) {
+        return (int) ((numerator * 2 + denominator) / (denominator * 2));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * A copy-on-write set of listeners. Adding or removing a listener replaces
+ * the backing array, while dispatching iterates a plain array without
+ * allocating an iterator:
+ * 
+ * <pre>
+ * final Object[] listeners = mListeners.getArray();
+ * for (int i = 0; i &lt; listeners.length; i++) {
+ *     ((Listener) listeners[i]).onEvent();
+ * }
+ * </pre>
+ * 
+ * Listeners may be added or removed from any thread, including by a listener
+ * during dispatch; the change takes effect from the next dispatch.
+ * 
+ * @param <T> the type of the listeners
+ */
+public class ListenerArray<T> {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    private static final Object[] EMPTY = new Object[0];
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Never modified once published; replaced on every change.
+    private volatile Object[] mListeners = EMPTY;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Adds a listener if it is not already present.
+     * 
+     * @param listener the listener to add; null is ignored
+     * @return true if the listener was added
+     */
+    public synchronized boolean add(T listener) {
+
+        if (listener == null || indexOf(listener) >= 0) {
+            return false;
+        }
+
+        final Object[] listeners = mListeners;
+        final Object[] newListeners = new Object[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        mListeners = newListeners;
+        return true;
+    }
+
+    /**
+     * Removes a listener.
+     * 
+     * @param listener the listener to remove
+     * @return true if the listener was present
+     */
+    public synchronized boolean remove(T listener) {
+
+        final int index = indexOf(listener);
+        if (index < 0) {
+            return false;
+        }
+
+        final Object[] listeners = mListeners;
+        if (listeners.length == 1) {
+            mListeners = EMPTY;
+            return true;
+        }
+
+        final Object[] newListeners = new Object[listeners.length - 1];
+        System.arraycopy(listeners, 0, newListeners, 0, index);
+        System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+        mListeners = newListeners;
+        return true;
+    }
+
+    public synchronized void clear() {
+        mListeners = EMPTY;
+    }
+
+    /**
+     * Gets the current listeners, in the order they were added. The array
+     * must not be modified; it is an empty array if there are no listeners.
+     */
+    public Object[] getArray() {
+        return mListeners;
+    }
+
+    public boolean isEmpty() {
+        return mListeners.length == 0;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private int indexOf(T listener) {
+
+        final Object[] listeners = mListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
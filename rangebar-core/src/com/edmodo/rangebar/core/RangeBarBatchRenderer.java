@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Draws many ranges into one canvas without a view, controller or thumb
+ * objects per range. The ranges are given as primitive arrays of tick counts
+ * and thumb indices and are laid out as rows of equal height, one bar per
+ * row, using the style of a shared {@link RangeBarPainter}. The renderer
+ * holds a single {@link TickGeometry} and pair of {@link ThumbModel}s that are
+ * repositioned for every row, so drawing allocates nothing and the memory used
+ * does not grow with the number of rows. Each row is drawn in its own
+ * coordinates, translated by the top of the row, so that the painter's cached
+ * tick lines are reused by every following row with the same tick count.
+ * <p>
+ * The thumbs are placed by the same {@link TickGeometry} math as in a
+ * {@link RangeBarController} with the same layout, so a row that is being
+ * dragged can be drawn by a controller and the painter instead, and look the
+ * same once released.
+ */
+public class RangeBarBatchRenderer {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final RangeBarPainter mPainter;
+
+    private final TickGeometry mGeometry = new TickGeometry(0, 0, 2);
+    private final ThumbModel mLeftThumb = new ThumbModel();
+    private final ThumbModel mRightThumb = new ThumbModel();
+
+    // Layout shared by every row.
+    private float mMarginLeft;
+    private float mBarLength;
+    private float mRowHeight;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * @param painter the painter holding the style the rows are drawn with
+     */
+    public RangeBarBatchRenderer(RangeBarPainter painter) {
+        mPainter = painter;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the layout of the rows.
+     * 
+     * @param marginLeft the x-coordinate of the left edge of each bar
+     * @param barLength the length of each bar
+     * @param rowHeight the height of a row; row i spans from i * rowHeight to
+     *            (i + 1) * rowHeight, with its bar in the middle
+     */
+    public void setLayout(float marginLeft, float barLength, float rowHeight) {
+        mMarginLeft = marginLeft;
+        mBarLength = barLength;
+        mRowHeight = rowHeight;
+    }
+
+    public float getMarginLeft() {
+        return mMarginLeft;
+    }
+
+    public float getBarLength() {
+        return mBarLength;
+    }
+
+    public float getRowHeight() {
+        return mRowHeight;
+    }
+
+    /**
+     * Gets the y-coordinate of the bar of a row.
+     * 
+     * @param row the index of the row
+     * @return the y-coordinate of the middle of the row
+     */
+    public float getRowY(int row) {
+        return getRowTop(row) + getBarY();
+    }
+
+    /**
+     * Gets the y-coordinate of the top of a row, by which it is translated
+     * when drawn.
+     * 
+     * @param row the index of the row
+     */
+    public float getRowTop(int row) {
+        return row * mRowHeight;
+    }
+
+    /**
+     * Gets the y-coordinate of the bar within the coordinates of its row.
+     */
+    public float getBarY() {
+        return mRowHeight / 2f;
+    }
+
+    /**
+     * Gets the row containing a y-coordinate. The result is not clamped to
+     * the number of rows.
+     * 
+     * @param y the y-coordinate
+     * @return the index of the row, or -1 if y is above the first row
+     */
+    public int getRowAt(float y) {
+        return (y < 0 || mRowHeight <= 0) ? -1 : (int) (y / mRowHeight);
+    }
+
+    /**
+     * Draws a range of rows.
+     * 
+     * @param canvas the canvas to draw to
+     * @param tickCounts the number of ticks of each row; each must be greater
+     *            than 1
+     * @param leftIndices the index of the left thumb of each row
+     * @param rightIndices the index of the right thumb of each row
+     * @param startRow the first row to draw
+     * @param endRow the row after the last one to draw
+     */
+    public void draw(RangeBarCanvas canvas,
+                     int[] tickCounts,
+                     int[] leftIndices,
+                     int[] rightIndices,
+                     int startRow,
+                     int endRow) {
+
+        final float y = getBarY();
+
+        mGeometry.setPosition(mMarginLeft, mBarLength);
+        mLeftThumb.setY(y);
+        mRightThumb.setY(y);
+
+        for (int row = startRow; row < endRow; row++) {
+
+            mGeometry.setTickCount(tickCounts[row]);
+            mLeftThumb.setX(mGeometry.getTickCoordinate(leftIndices[row]));
+            mRightThumb.setX(mGeometry.getTickCoordinate(rightIndices[row]));
+
+            canvas.save();
+            canvas.translate(0, getRowTop(row));
+
+            mPainter.drawBar(canvas, mGeometry, y);
+            mPainter.drawConnectingLine(canvas, mLeftThumb.getX(), mRightThumb.getX(), y);
+            mPainter.drawThumb(canvas, mLeftThumb);
+            mPainter.drawThumb(canvas, mRightThumb);
+
+            canvas.restore();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * The drawing operations issued by {@link RangeBarPainter}. The Android
+ * RangeBar forwards them to an android.graphics.Canvas; a
+ * {@link RecordingCanvas} records them so that frames can be inspected on a
+ * plain JVM.
+ * <p>
+ * Paints and images are referred to by the ids defined in RangeBarPainter,
+ * e.g. {@link RangeBarPainter#PAINT_BAR}; the implementation maps them to
+ * its own paint and bitmap objects.
+ * <p>
+ * Bar, ConnectingLine and Thumb used to draw to the Canvas themselves, which
+ * could only be measured on a device. Going through this interface lets the
+ * benchmark guards check the exact operations onDraw issues, rather than a
+ * copy of them that can drift.
+ */
+public interface RangeBarCanvas {
+
+    public void drawLine(float startX, float startY, float stopX, float stopY, int paint);
+
+    /**
+     * Draws a series of lines in a single operation. Each line is taken from 4
+     * consecutive values in the pts array.
+     * 
+     * @param pts the points of the lines
+     * @param count the number of values in pts to draw; a multiple of 4
+     * @param paint the id of the paint to draw with
+     */
+    public void drawLines(float[] pts, int count, int paint);
+
+    public void drawCircle(float cx, float cy, float radius, int paint);
+
+    public void drawImage(int image, float left, float top);
+
+    /**
+     * Saves the current translation, to be restored by {@link #restore()}.
+     */
+    public void save();
+
+    /**
+     * Offsets the following operations, e.g. to draw a row of a
+     * {@link RangeBarBatchRenderer} in the coordinates of the row.
+     */
+    public void translate(float dx, float dy);
+
+    public void restore();
+}
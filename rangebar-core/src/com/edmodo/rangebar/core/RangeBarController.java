@@ -0,0 +1,481 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Holds the selected range of a RangeBar and implements everything the view
+ * does with it that does not involve drawing: laying out the thumbs on the
+ * ticks, hit-testing touches, moving and swapping the thumbs during a drag
+ * and snapping them to the nearest tick. The Android RangeBar forwards its
+ * size changes and touch events here.
+ * <p>
+ * This class has no Android dependencies so that it can be tested and
+ * benchmarked on a plain JVM.
+ */
+public class RangeBarController {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final TickGeometry mGeometry;
+
+    private ThumbModel mLeftThumb = new ThumbModel();
+    private ThumbModel mRightThumb = new ThumbModel();
+
+    // The y-coordinate of the bar and thumbs.
+    private float mY;
+
+    private int mTickCount;
+    private int mLeftIndex;
+    private int mRightIndex;
+
+    // setTickCount only resets indices before a thumb has been pressed or a
+    // setThumbIndices() is called, to correspond with intended usage
+    private boolean mFirstSetTickCount = true;
+
+    private final RangeBarController.OnIndexChangeListener mListener;
+
+    // Predicts where the pressed thumb is drawn; null if prediction is off.
+    private TouchPredictor mPredictor;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a controller with the thumbs on the first and last ticks.
+     * 
+     * @param tickCount the number of ticks; must be greater than 1
+     * @param listener notified whenever either index changes; may be null
+     */
+    public RangeBarController(int tickCount, RangeBarController.OnIndexChangeListener listener) {
+
+        if (!isValidTickCount(tickCount)) {
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+
+        mTickCount = tickCount;
+        mLeftIndex = 0;
+        mRightIndex = mTickCount - 1;
+        mGeometry = new TickGeometry(0, 0, tickCount);
+        mListener = listener;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * If is invalid tickCount, rejects. TickCount must be greater than 1
+     * 
+     * @param tickCount Integer
+     * @return boolean: whether tickCount > 1
+     */
+    public static boolean isValidTickCount(int tickCount) {
+        return (tickCount > 1);
+    }
+
+    /**
+     * Returns if either index is outside the range of the tickCount.
+     * 
+     * @param leftThumbIndex Integer specifying the left thumb index.
+     * @param rightThumbIndex Integer specifying the right thumb index.
+     * @return boolean If the index is out of range.
+     */
+    public boolean indexOutOfRange(int leftThumbIndex, int rightThumbIndex) {
+        return (leftThumbIndex < 0 || leftThumbIndex >= mTickCount
+                || rightThumbIndex < 0
+                || rightThumbIndex >= mTickCount);
+    }
+
+    /**
+     * Positions the bar and moves the thumbs to the ticks of the current
+     * indices. Called whenever the size of the view or of the thumbs changes.
+     * 
+     * @param marginLeft the x-coordinate of the left edge of the bar
+     * @param y the y-coordinate of the bar and thumbs
+     * @param barLength the length of the bar
+     */
+    public void setLayout(float marginLeft, float y, float barLength) {
+
+        mGeometry.setPosition(marginLeft, barLength);
+
+        mY = y;
+        mLeftThumb.setY(y);
+        mRightThumb.setY(y);
+
+        updateThumbPositions();
+    }
+
+    /**
+     * Sets the radius of the touchable area around each thumb.
+     * 
+     * @param targetRadiusPx the radius in pixels
+     */
+    public void setThumbTargetRadius(float targetRadiusPx) {
+        mLeftThumb.setTargetRadius(targetRadiusPx);
+        mRightThumb.setTargetRadius(targetRadiusPx);
+    }
+
+    /**
+     * Sets the number of ticks. The indices are reset to the full range if no
+     * thumb has been pressed yet or if they no longer fit.
+     * 
+     * @param tickCount Integer specifying the number of ticks.
+     * @throws IllegalArgumentException if the tickCount is less than 2
+     */
+    public void setTickCount(int tickCount) {
+
+        if (!isValidTickCount(tickCount)) {
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+
+        mTickCount = tickCount;
+        mGeometry.setTickCount(tickCount);
+
+        // Prevents resetting the indices when creating new activity, but
+        // allows it on the first setting.
+        if (mFirstSetTickCount) {
+            mLeftIndex = 0;
+            mRightIndex = mTickCount - 1;
+
+            notifyListener();
+        }
+        if (indexOutOfRange(mLeftIndex, mRightIndex)) {
+            mLeftIndex = 0;
+            mRightIndex = mTickCount - 1;
+
+            notifyListener();
+        }
+
+        updateThumbPositions();
+    }
+
+    /**
+     * Restores the tick count saved with the view state, without touching the
+     * indices or notifying the listener. The indices are restored separately
+     * through {@link #setThumbIndices(int, int)}.
+     * 
+     * @param tickCount the saved number of ticks
+     * @param firstSetTickCount the saved value of {@link #isFirstSetTickCount()}
+     */
+    public void restoreTickCount(int tickCount, boolean firstSetTickCount) {
+
+        if (!isValidTickCount(tickCount)) {
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+
+        mTickCount = tickCount;
+        mGeometry.setTickCount(tickCount);
+        mFirstSetTickCount = firstSetTickCount;
+    }
+
+    /**
+     * Sets the location of each thumb. Numbered from 0 to tickCount - 1 from
+     * the left.
+     * 
+     * @param leftThumbIndex Integer specifying the index of the left thumb
+     * @param rightThumbIndex Integer specifying the index of the right thumb
+     * @throws IllegalArgumentException if either index is out of bounds
+     */
+    public void setThumbIndices(int leftThumbIndex, int rightThumbIndex) {
+
+        if (indexOutOfRange(leftThumbIndex, rightThumbIndex)) {
+            throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+        }
+
+        mFirstSetTickCount = false;
+
+        mLeftIndex = leftThumbIndex;
+        mRightIndex = rightThumbIndex;
+        updateThumbPositions();
+
+        notifyListener();
+    }
+
+    /**
+     * Recomputes both indices from the current thumb positions and notifies
+     * the listener if either of them changed.
+     */
+    public void updateIndices() {
+
+        // Get the updated nearest tick marks for each thumb.
+        final int newLeftIndex = mGeometry.getNearestTickIndex(mLeftThumb.getX());
+        final int newRightIndex = mGeometry.getNearestTickIndex(mRightThumb.getX());
+
+        // If either of the indices have changed, update and call the listener.
+        if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
+
+            mLeftIndex = newLeftIndex;
+            mRightIndex = newRightIndex;
+
+            notifyListener();
+        }
+    }
+
+    /**
+     * Sets the predictor used by {@link #predictMove(long)}, or turns
+     * prediction off.
+     * 
+     * @param predictor the predictor, fed by the view with every touch sample
+     *            of a drag; null to draw the pressed thumb at the touch
+     */
+    public void setTouchPredictor(TouchPredictor predictor) {
+
+        mPredictor = predictor;
+        mLeftThumb.setDrawX(mLeftThumb.getX());
+        mRightThumb.setDrawX(mRightThumb.getX());
+    }
+
+    public TouchPredictor getTouchPredictor() {
+        return mPredictor;
+    }
+
+    /**
+     * Draws the pressed thumb where the predictor expects the touch to be at
+     * the given time, clamped to the ends of the bar and to the other thumb, so
+     * that the connecting line is never drawn reversed. The thumb's own
+     * position and the indices are left alone. Does nothing unless a thumb is being
+     * dragged and a predictor is set.
+     * 
+     * @param timeNanos the time the next frame is expected to be shown, on the
+     *            clock of the samples given to the predictor
+     * @return true if the drawn position changed and the view should be
+     *         redrawn
+     */
+    public boolean predictMove(long timeNanos) {
+
+        final ThumbModel thumb = mLeftThumb.isPressed() ? mLeftThumb : mRightThumb;
+        if (mPredictor == null || !thumb.isPressed() || !mPredictor.hasSamples()) {
+            return false;
+        }
+
+        final float leftX = mGeometry.getLeftX();
+        final float rightX = mGeometry.getRightX();
+
+        // Only a real move swaps the thumbs, so the prediction stops at the
+        // other one.
+        final float minX = (thumb == mLeftThumb) ? leftX : mLeftThumb.getX();
+        final float maxX = (thumb == mLeftThumb) ? mRightThumb.getX() : rightX;
+
+        // A touch past the end of the bar does not move the thumb, so neither
+        // does its prediction.
+        final float lastX = mPredictor.getLastX();
+        float drawX = thumb.getX();
+        if (lastX >= leftX && lastX <= rightX) {
+            drawX = Math.max(minX, Math.min(maxX, mPredictor.predict(timeNanos)));
+        }
+
+        if (drawX == thumb.getDrawX()) {
+            return false;
+        }
+        thumb.setDrawX(drawX);
+        return true;
+    }
+
+    /**
+     * Handles an ACTION_DOWN event.
+     * 
+     * @param x the x-coordinate of the down action
+     * @param y the y-coordinate of the down action
+     * @return true if a thumb was pressed and the view should be redrawn
+     */
+    public boolean onActionDown(float x, float y) {
+
+        if (!mLeftThumb.isPressed() && mLeftThumb.isInTargetZone(x, y)) {
+
+            pressThumb(mLeftThumb);
+            return true;
+
+        } else if (!mLeftThumb.isPressed() && mRightThumb.isInTargetZone(x, y)) {
+
+            pressThumb(mRightThumb);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Handles an ACTION_UP or ACTION_CANCEL event. A thumb is always released
+     * (or, for a tap on the bar, moved to the tap), so the view should always
+     * be redrawn afterwards.
+     * 
+     * @param x the x-coordinate of the up action
+     * @param y the y-coordinate of the up action
+     */
+    public void onActionUp(float x, float y) {
+
+        if (mLeftThumb.isPressed()) {
+
+            releaseThumb(mLeftThumb);
+
+        } else if (mRightThumb.isPressed()) {
+
+            releaseThumb(mRightThumb);
+
+        } else {
+
+            float leftThumbXDistance = Math.abs(mLeftThumb.getX() - x);
+            float rightThumbXDistance = Math.abs(mRightThumb.getX() - x);
+
+            if (leftThumbXDistance < rightThumbXDistance) {
+                mLeftThumb.setX(x);
+                releaseThumb(mLeftThumb);
+            } else {
+                mRightThumb.setX(x);
+                releaseThumb(mRightThumb);
+            }
+
+            updateIndices();
+        }
+    }
+
+    /**
+     * Handles an ACTION_MOVE event.
+     * 
+     * @param x the x-coordinate of the move event
+     * @return true if a thumb moved and the view should be redrawn
+     */
+    public boolean onActionMove(float x) {
+
+        boolean moved = false;
+
+        // Move the pressed thumb to the new x-position.
+        if (mLeftThumb.isPressed()) {
+            moved = moveThumb(mLeftThumb, x);
+        } else if (mRightThumb.isPressed()) {
+            moved = moveThumb(mRightThumb, x);
+        }
+
+        // If the thumbs have switched order, fix the references.
+        if (mLeftThumb.getX() > mRightThumb.getX()) {
+            final ThumbModel temp = mLeftThumb;
+            mLeftThumb = mRightThumb;
+            mRightThumb = temp;
+        }
+
+        updateIndices();
+
+        return moved;
+    }
+
+    public TickGeometry getGeometry() {
+        return mGeometry;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public ThumbModel getLeftThumb() {
+        return mLeftThumb;
+    }
+
+    public ThumbModel getRightThumb() {
+        return mRightThumb;
+    }
+
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    public int getLeftIndex() {
+        return mLeftIndex;
+    }
+
+    public int getRightIndex() {
+        return mRightIndex;
+    }
+
+    /**
+     * Returns whether a thumb is pressed, i.e. between an
+     * {@link #onActionDown(float, float)} that pressed a thumb and the next
+     * {@link #onActionUp(float, float)}.
+     */
+    public boolean isDragging() {
+        return mLeftThumb.isPressed() || mRightThumb.isPressed();
+    }
+
+    public boolean isFirstSetTickCount() {
+        return mFirstSetTickCount;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Moves the thumbs to the positions of the current indices.
+     */
+    private void updateThumbPositions() {
+        mLeftThumb.setX(mGeometry.getTickCoordinate(mLeftIndex));
+        mRightThumb.setX(mGeometry.getTickCoordinate(mRightIndex));
+    }
+
+    /**
+     * Set the thumb to be in the pressed state.
+     * 
+     * @param thumb the thumb to press
+     */
+    private void pressThumb(ThumbModel thumb) {
+        mFirstSetTickCount = false;
+        thumb.press();
+
+        if (mPredictor != null) {
+            mPredictor.reset();
+        }
+    }
+
+    /**
+     * Snaps the thumb to the nearest tick and sets it to be in the
+     * normal/un-pressed state.
+     * 
+     * @param thumb the thumb to release
+     */
+    private void releaseThumb(ThumbModel thumb) {
+
+        final float nearestTickX = mGeometry.getNearestTickCoordinate(thumb.getX());
+        thumb.setX(nearestTickX);
+        thumb.release();
+    }
+
+    /**
+     * Moves the thumb to the given x-coordinate.
+     * 
+     * @param thumb the thumb to move
+     * @param x the x-coordinate to move the thumb to
+     * @return true if the thumb was moved
+     */
+    private boolean moveThumb(ThumbModel thumb, float x) {
+
+        // If the user has moved their finger outside the range of the bar,
+        // do not move the thumbs past the edge.
+        if (x < mGeometry.getLeftX() || x > mGeometry.getRightX()) {
+            return false;
+        }
+        thumb.setX(x);
+        return true;
+    }
+
+    private void notifyListener() {
+        if (mListener != null) {
+            mListener.onIndexChange(mLeftIndex, mRightIndex);
+        }
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * A callback that notifies the owner of the controller when either thumb's
+     * index has changed - not for every movement of the thumb.
+     */
+    public static interface OnIndexChangeListener {
+
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex);
+    }
+}
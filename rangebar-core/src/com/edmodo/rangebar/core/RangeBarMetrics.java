@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Runtime performance counters and duration histograms of a single RangeBar.
+ * All storage is allocated up front, so recording never allocates. The
+ * metrics are recorded on the UI thread; take a {@link Snapshot} on the same
+ * thread and hand the snapshot to other threads for export.
+ */
+public class RangeBarMetrics {
+
+    // Histograms //////////////////////////////////////////////////////////////
+
+    // Time spent in onDraw, in nanoseconds.
+    public static final int HISTOGRAM_DRAW = 0;
+
+    // Time from a touch event that changed the RangeBar, as given by
+    // MotionEvent.getEventTime(), to the end of the next onDraw, measured on
+    // the uptime clock with millisecond resolution and recorded in
+    // nanoseconds.
+    public static final int HISTOGRAM_TOUCH_TO_DRAW = 1;
+
+    // Time spent in the client's listeners, in nanoseconds.
+    public static final int HISTOGRAM_LISTENER = 2;
+
+    public static final int HISTOGRAM_COUNT = 3;
+
+    // Counters ////////////////////////////////////////////////////////////////
+
+    public static final int COUNTER_INVALIDATIONS = 0;
+    public static final int COUNTER_BAR_REBUILDS = 1;
+    public static final int COUNTER_THUMB_REBUILDS = 2;
+    public static final int COUNTER_CONNECTING_LINE_REBUILDS = 3;
+
+    // Times the thumb images and Paints were released to save memory.
+    public static final int COUNTER_RESOURCE_RELEASES = 4;
+
+    public static final int COUNTER_COUNT = 5;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Histogram[] mHistograms = new Histogram[HISTOGRAM_COUNT];
+    private final long[] mCounters = new long[COUNTER_COUNT];
+
+    // System.nanoTime() when collection started or was last reset.
+    private long mStartNanos;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public RangeBarMetrics() {
+
+        for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+            mHistograms[i] = new Histogram();
+        }
+        mStartNanos = System.nanoTime();
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Adds a duration to one of the histograms.
+     * 
+     * @param histogram the histogram, e.g. {@link #HISTOGRAM_DRAW}
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(int histogram, long nanos) {
+        mHistograms[histogram].record(nanos);
+    }
+
+    /**
+     * Increments one of the counters.
+     * 
+     * @param counter the counter, e.g. {@link #COUNTER_INVALIDATIONS}
+     */
+    public void increment(int counter) {
+        mCounters[counter]++;
+    }
+
+    public Histogram getHistogram(int histogram) {
+        return mHistograms[histogram];
+    }
+
+    public long getCounter(int counter) {
+        return mCounters[counter];
+    }
+
+    /**
+     * Clears all counters and histograms and restarts the collection period.
+     */
+    public void reset() {
+
+        for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+            mHistograms[i].reset();
+        }
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            mCounters[i] = 0;
+        }
+        mStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Copies the current values into a snapshot. Reuse the snapshot between
+     * calls to avoid allocating.
+     * 
+     * @param snapshot the snapshot to overwrite
+     */
+    public void snapshot(Snapshot snapshot) {
+
+        for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+            mHistograms[i].copyTo(snapshot.mHistograms[i]);
+        }
+        System.arraycopy(mCounters, 0, snapshot.mCounters, 0, COUNTER_COUNT);
+        snapshot.mElapsedNanos = System.nanoTime() - mStartNanos;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * A copy of the metrics at one point in time, suitable for exporting to
+     * telemetry from any thread.
+     */
+    public static class Snapshot {
+
+        private final Histogram[] mHistograms = new Histogram[HISTOGRAM_COUNT];
+        private final long[] mCounters = new long[COUNTER_COUNT];
+        private long mElapsedNanos;
+
+        public Snapshot() {
+            for (int i = 0; i < HISTOGRAM_COUNT; i++) {
+                mHistograms[i] = new Histogram();
+            }
+        }
+
+        public Histogram getHistogram(int histogram) {
+            return mHistograms[histogram];
+        }
+
+        public long getCounter(int counter) {
+            return mCounters[counter];
+        }
+
+        /**
+         * Gets the length of the collection period covered by the snapshot.
+         */
+        public long getElapsedNanos() {
+            return mElapsedNanos;
+        }
+
+        /**
+         * Gets the average number of invalidations per second over the
+         * collection period.
+         */
+        public double getInvalidationsPerSecond() {
+            return (mElapsedNanos <= 0) ? 0 : mCounters[COUNTER_INVALIDATIONS] * 1e9 / mElapsedNanos;
+        }
+    }
+}
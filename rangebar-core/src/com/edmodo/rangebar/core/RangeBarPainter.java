@@ -0,0 +1,235 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Issues the drawing operations for a RangeBar frame: the bar, its ticks, the
+ * connecting line and the two thumbs. The painter holds the pixel sizes of
+ * the style; the colors and bitmaps belong to the {@link RangeBarCanvas}
+ * implementation and are referred to by id.
+ * <p>
+ * A frame always costs the same number of operations regardless of the tick
+ * count: the ticks are drawn with a single
+ * {@link RangeBarCanvas#drawLines(float[], int, int)} call whose points are
+ * cached until the geometry or the style changes.
+ */
+public class RangeBarPainter {
+
+    // Paint and Image Ids /////////////////////////////////////////////////////
+
+    public static final int PAINT_BAR = 0;
+    public static final int PAINT_CONNECTING_LINE = 1;
+    public static final int PAINT_THUMB_NORMAL = 2;
+    public static final int PAINT_THUMB_PRESSED = 3;
+    public static final int PAINT_COUNT = 4;
+
+    public static final int IMAGE_THUMB_NORMAL = 0;
+    public static final int IMAGE_THUMB_PRESSED = 1;
+    public static final int IMAGE_COUNT = 2;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Height of the ticks, in pixels.
+    private float mTickHeight;
+
+    // Thumbs are drawn either as images or, if a radius is set, as circles.
+    private boolean mUseThumbImages = true;
+    private float mThumbRadius;
+    private float mHalfWidthNormal;
+    private float mHalfHeightNormal;
+    private float mHalfWidthPressed;
+    private float mHalfHeightPressed;
+
+    // Cached end points of the tick lines, 4 values per tick.
+    private float[] mTickPoints = new float[0];
+    private int mTickPointCount;
+    private boolean mTickPointsValid;
+
+    // The geometry the tick points were computed for.
+    private float mTickLeftX;
+    private float mTickRightX;
+    private int mTickCount;
+    private float mTickY;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the height of the tick marks. The weight of the bar and tick lines
+     * is the stroke width of {@link #PAINT_BAR}.
+     * 
+     * @param tickHeight the height of each tick mark in px
+     */
+    public void setTickHeight(float tickHeight) {
+        mTickHeight = tickHeight;
+        mTickPointsValid = false;
+    }
+
+    /**
+     * Draws the thumbs as images of the given sizes.
+     */
+    public void setThumbImages(float halfWidthNormal,
+                               float halfHeightNormal,
+                               float halfWidthPressed,
+                               float halfHeightPressed) {
+        mUseThumbImages = true;
+        mHalfWidthNormal = halfWidthNormal;
+        mHalfHeightNormal = halfHeightNormal;
+        mHalfWidthPressed = halfWidthPressed;
+        mHalfHeightPressed = halfHeightPressed;
+    }
+
+    /**
+     * Draws the thumbs as circles of the given radius.
+     * 
+     * @param radius the radius of the circles in px
+     */
+    public void setThumbCircle(float radius) {
+        mUseThumbImages = false;
+        mThumbRadius = radius;
+    }
+
+    /**
+     * Draws a complete frame.
+     * 
+     * @param canvas the canvas to draw to
+     * @param controller the state of the RangeBar to draw
+     */
+    public void draw(RangeBarCanvas canvas, RangeBarController controller) {
+
+        final float y = controller.getY();
+        final ThumbModel leftThumb = controller.getLeftThumb();
+        final ThumbModel rightThumb = controller.getRightThumb();
+
+        drawBar(canvas, controller.getGeometry(), y);
+
+        drawConnectingLine(canvas, leftThumb.getDrawX(), rightThumb.getDrawX(), y);
+
+        drawThumb(canvas, leftThumb);
+        drawThumb(canvas, rightThumb);
+    }
+
+    /**
+     * Draws the bar together with its tick marks.
+     * 
+     * @param canvas the canvas to draw to
+     * @param geometry the positions of the bar and ticks
+     * @param y the y-coordinate of the bar
+     */
+    public void drawBar(RangeBarCanvas canvas, TickGeometry geometry, float y) {
+
+        canvas.drawLine(geometry.getLeftX(), y, geometry.getRightX(), y, PAINT_BAR);
+
+        drawTicks(canvas, geometry, y);
+    }
+
+    /**
+     * Draws the tick marks on the bar.
+     * 
+     * @param canvas the canvas to draw to
+     * @param geometry the positions of the bar and ticks
+     * @param y the y-coordinate of the bar
+     */
+    public void drawTicks(RangeBarCanvas canvas, TickGeometry geometry, float y) {
+
+        if (!mTickPointsValid
+                || mTickLeftX != geometry.getLeftX()
+                || mTickRightX != geometry.getRightX()
+                || mTickCount != geometry.getTickCount()
+                || mTickY != y) {
+            updateTickPoints(geometry, y);
+        }
+
+        canvas.drawLines(mTickPoints, mTickPointCount, PAINT_BAR);
+    }
+
+    /**
+     * Draw the connecting line between the two thumbs.
+     * 
+     * @param canvas the canvas to draw to
+     * @param leftX the x-coordinate of the left thumb
+     * @param rightX the x-coordinate of the right thumb
+     * @param y the y-coordinate of the line
+     */
+    public void drawConnectingLine(RangeBarCanvas canvas, float leftX, float rightX, float y) {
+        canvas.drawLine(leftX, y, rightX, y, PAINT_CONNECTING_LINE);
+    }
+
+    /**
+     * Draws a thumb.
+     * 
+     * @param canvas the canvas to draw to
+     * @param thumb the position and pressed state of the thumb to draw
+     */
+    public void drawThumb(RangeBarCanvas canvas, ThumbModel thumb) {
+        drawThumb(canvas, thumb.getDrawX(), thumb.getY(), thumb.isPressed());
+    }
+
+    /**
+     * Draws a thumb centered at the given position, e.g. into a View that is
+     * moved with the thumb.
+     * 
+     * @param canvas the canvas to draw to
+     * @param x the x-coordinate of the center of the thumb
+     * @param y the y-coordinate of the center of the thumb
+     * @param isPressed true to draw the pressed thumb
+     */
+    public void drawThumb(RangeBarCanvas canvas, float x, float y, boolean isPressed) {
+
+        if (mUseThumbImages) {
+
+            if (isPressed) {
+                canvas.drawImage(IMAGE_THUMB_PRESSED, x - mHalfWidthPressed, y - mHalfHeightPressed);
+            } else {
+                canvas.drawImage(IMAGE_THUMB_NORMAL, x - mHalfWidthNormal, y - mHalfHeightNormal);
+            }
+
+        } else {
+
+            canvas.drawCircle(x, y, mThumbRadius, isPressed ? PAINT_THUMB_PRESSED : PAINT_THUMB_NORMAL);
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Recomputes the end points of the tick lines, one line per tick.
+     */
+    private void updateTickPoints(TickGeometry geometry, float y) {
+
+        mTickLeftX = geometry.getLeftX();
+        mTickRightX = geometry.getRightX();
+        mTickCount = geometry.getTickCount();
+        mTickY = y;
+        mTickPointsValid = true;
+
+        if (mTickPoints.length < mTickCount * 4) {
+            mTickPoints = new float[mTickCount * 4];
+        }
+
+        final float startY = y - mTickHeight / 2f;
+        final float endY = y + mTickHeight / 2f;
+
+        int count = 0;
+        for (int i = 0; i < mTickCount; i++) {
+            final float x = geometry.getTickCoordinate(i);
+            mTickPoints[count] = x;
+            mTickPoints[count + 1] = startY;
+            mTickPoints[count + 2] = x;
+            mTickPoints[count + 3] = endY;
+            count += 4;
+        }
+        mTickPointCount = count;
+    }
+}
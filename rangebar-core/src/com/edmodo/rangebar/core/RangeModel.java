@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * An observable range of indices that several RangeBars can share, for
+ * example an overview bar and a zoomed detail bar. A change made through one
+ * bar is pushed to every other bound bar in the same pass, without relayout,
+ * and is never reported back to the bar that made it.
+ * <p>
+ * The model has its own tick count; each bar maps between the model's
+ * indices and its own ticks with an {@link IndexMapping}. The model is not
+ * thread-safe and must be used from the UI thread.
+ */
+public class RangeModel {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final int mTickCount;
+    private int mLeftIndex;
+    private int mRightIndex;
+
+    private final ListenerArray<RangeModel.OnRangeChangeListener> mListeners = new ListenerArray<RangeModel.OnRangeChangeListener>();
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a model spanning all of its ticks.
+     * 
+     * @param tickCount the number of ticks; must be greater than 1
+     */
+    public RangeModel(int tickCount) {
+
+        if (!RangeBarController.isValidTickCount(tickCount)) {
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+
+        mTickCount = tickCount;
+        mLeftIndex = 0;
+        mRightIndex = tickCount - 1;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    public int getLeftIndex() {
+        return mLeftIndex;
+    }
+
+    public int getRightIndex() {
+        return mRightIndex;
+    }
+
+    /**
+     * Sets both indices and notifies every listener except the source. Does
+     * nothing if neither index changes, so updates cannot loop.
+     * 
+     * @param leftIndex the new left index
+     * @param rightIndex the new right index
+     * @param source the listener of the object making the change, e.g. of
+     *            the RangeBar being dragged; it is not notified. May be null
+     *            to notify every listener.
+     * @throws IllegalArgumentException if either index is out of bounds
+     */
+    public void setIndices(int leftIndex, int rightIndex, Object source) {
+
+        if (leftIndex < 0 || leftIndex >= mTickCount || rightIndex < 0 || rightIndex >= mTickCount) {
+            throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+        }
+
+        if (leftIndex == mLeftIndex && rightIndex == mRightIndex) {
+            return;
+        }
+
+        mLeftIndex = leftIndex;
+        mRightIndex = rightIndex;
+
+        final Object[] listeners = mListeners.getArray();
+        for (int i = 0; i < listeners.length; i++) {
+            final RangeModel.OnRangeChangeListener listener = (RangeModel.OnRangeChangeListener) listeners[i];
+            if (listener != source) {
+                listener.onRangeChange(this, source);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener. It may be added or removed during a notification.
+     * 
+     * @param listener the listener to add; ignored if null or already added
+     */
+    public void addOnRangeChangeListener(RangeModel.OnRangeChangeListener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeOnRangeChangeListener(RangeModel.OnRangeChangeListener listener) {
+        mListeners.remove(listener);
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * A callback that notifies the bound bars when the range has changed.
+     */
+    public static interface OnRangeChangeListener {
+
+        /**
+         * @param model the model that changed
+         * @param source the object that made the change, as passed to
+         *            {@link RangeModel#setIndices(int, int, Object)}
+         */
+        public void onRangeChange(RangeModel model, Object source);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * A {@link RangeBarCanvas} that records every operation instead of drawing
+ * it, so that the cost of a frame can be inspected on a plain JVM: the number
+ * of operations, the total area they cover (overdraw) and how often the paint
+ * or image changes between consecutive operations.
+ * <p>
+ * The recorder only knows paints and images by id, so the stroke widths and
+ * image sizes used for the area must be set to match the style being drawn.
+ * Saving, translating and restoring only move the following operations, so
+ * they are not recorded. Recording does not allocate once the internal arrays have grown to the size
+ * of a frame.
+ */
+public class RecordingCanvas implements RangeBarCanvas {
+
+    // Operation Types /////////////////////////////////////////////////////////
+
+    public static final int OP_LINE = 0;
+    public static final int OP_LINES = 1;
+    public static final int OP_CIRCLE = 2;
+    public static final int OP_IMAGE = 3;
+    public static final int OP_TYPE_COUNT = 4;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final float[] mStrokeWidths = new float[RangeBarPainter.PAINT_COUNT];
+    private final float[] mImageWidths = new float[RangeBarPainter.IMAGE_COUNT];
+    private final float[] mImageHeights = new float[RangeBarPainter.IMAGE_COUNT];
+
+    // The type and paint or image id of each recorded operation.
+    private int[] mOpTypes = new int[16];
+    private int[] mOpResources = new int[16];
+    private int mOpCount;
+
+    private final int[] mOpCountByType = new int[OP_TYPE_COUNT];
+
+    private float mDrawnArea;
+
+    private int mLastPaint = -1;
+    private int mLastImage = -1;
+    private int mPaintSwitchCount;
+    private int mImageSwitchCount;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public void setStrokeWidth(int paint, float strokeWidth) {
+        mStrokeWidths[paint] = strokeWidth;
+    }
+
+    public void setImageSize(int image, float width, float height) {
+        mImageWidths[image] = width;
+        mImageHeights[image] = height;
+    }
+
+    /**
+     * Clears the recorded operations, e.g. before recording the next frame.
+     */
+    public void reset() {
+
+        mOpCount = 0;
+        for (int i = 0; i < OP_TYPE_COUNT; i++) {
+            mOpCountByType[i] = 0;
+        }
+        mDrawnArea = 0;
+        mLastPaint = -1;
+        mLastImage = -1;
+        mPaintSwitchCount = 0;
+        mImageSwitchCount = 0;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, int paint) {
+        record(OP_LINE, paint);
+        usePaint(paint);
+        mDrawnArea += lineArea(startX, startY, stopX, stopY, mStrokeWidths[paint]);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int count, int paint) {
+        record(OP_LINES, paint);
+        usePaint(paint);
+        final float strokeWidth = mStrokeWidths[paint];
+        final float halfWidth = strokeWidth / 2f;
+
+        // Consecutive vertical lines over the same span, e.g. tick marks, are
+        // merged while they overlap, so ticks closer together than their
+        // stroke width count the area they cover once.
+        float spanLeft = 0;
+        float spanRight = 0;
+        float spanStartY = 0;
+        float spanStopY = 0;
+        boolean inSpan = false;
+
+        for (int i = 0; i + 3 < count; i += 4) {
+
+            final float startX = pts[i];
+            final float startY = pts[i + 1];
+            final float stopX = pts[i + 2];
+            final float stopY = pts[i + 3];
+
+            if (startX != stopX) {
+                mDrawnArea += lineArea(startX, startY, stopX, stopY, strokeWidth);
+                continue;
+            }
+
+            final float left = startX - halfWidth;
+            final float right = startX + halfWidth;
+
+            if (inSpan && startY == spanStartY && stopY == spanStopY && left <= spanRight && right >= spanLeft) {
+                spanLeft = Math.min(spanLeft, left);
+                spanRight = Math.max(spanRight, right);
+            } else {
+                if (inSpan) {
+                    mDrawnArea += (spanRight - spanLeft) * Math.abs(spanStopY - spanStartY);
+                }
+                spanLeft = left;
+                spanRight = right;
+                spanStartY = startY;
+                spanStopY = stopY;
+                inSpan = true;
+            }
+        }
+        if (inSpan) {
+            mDrawnArea += (spanRight - spanLeft) * Math.abs(spanStopY - spanStartY);
+        }
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int paint) {
+        record(OP_CIRCLE, paint);
+        usePaint(paint);
+        mDrawnArea += (float) (Math.PI * radius * radius);
+    }
+
+    @Override
+    public void drawImage(int image, float left, float top) {
+        record(OP_IMAGE, image);
+        if (image != mLastImage) {
+            mImageSwitchCount++;
+            mLastImage = image;
+        }
+        mDrawnArea += mImageWidths[image] * mImageHeights[image];
+    }
+
+    @Override
+    public void save() {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public void restore() {
+    }
+
+    /**
+     * Gets the number of operations recorded since the last reset.
+     */
+    public int getOpCount() {
+        return mOpCount;
+    }
+
+    /**
+     * Gets the number of operations of the given type, e.g. {@link #OP_LINE}.
+     */
+    public int getOpCount(int opType) {
+        return mOpCountByType[opType];
+    }
+
+    public int getOpType(int index) {
+        return mOpTypes[index];
+    }
+
+    /**
+     * Gets the paint id (for lines and circles) or image id (for images) of
+     * the recorded operation.
+     */
+    public int getOpResource(int index) {
+        return mOpResources[index];
+    }
+
+    /**
+     * Gets the total area covered by all operations, counting pixels that are
+     * drawn by more than one operation each time. Within a drawLines
+     * operation, overlapping consecutive vertical lines count once.
+     */
+    public float getDrawnArea() {
+        return mDrawnArea;
+    }
+
+    /**
+     * Gets the number of times a line or circle used a different paint than
+     * the previous one.
+     */
+    public int getPaintSwitchCount() {
+        return mPaintSwitchCount;
+    }
+
+    /**
+     * Gets the number of times an image operation drew a different image than
+     * the previous one.
+     */
+    public int getImageSwitchCount() {
+        return mImageSwitchCount;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void record(int opType, int resource) {
+
+        if (mOpCount == mOpTypes.length) {
+            final int[] opTypes = new int[mOpCount * 2];
+            final int[] opResources = new int[mOpCount * 2];
+            System.arraycopy(mOpTypes, 0, opTypes, 0, mOpCount);
+            System.arraycopy(mOpResources, 0, opResources, 0, mOpCount);
+            mOpTypes = opTypes;
+            mOpResources = opResources;
+        }
+
+        mOpTypes[mOpCount] = opType;
+        mOpResources[mOpCount] = resource;
+        mOpCount++;
+        mOpCountByType[opType]++;
+    }
+
+    private void usePaint(int paint) {
+        if (paint != mLastPaint) {
+            mPaintSwitchCount++;
+            mLastPaint = paint;
+        }
+    }
+
+    private static float lineArea(float startX, float startY, float stopX, float stopY, float strokeWidth) {
+        final float dx = stopX - startX;
+        final float dy = stopY - startY;
+        return (float) Math.sqrt(dx * dx + dy * dy) * strokeWidth;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * The position and pressed state of a thumb in the RangeBar slider. This is
+ * the handle for the slider that is pressed and slid; drawing it is left to
+ * the view.
+ */
+public class ThumbModel {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Radius (in pixels) of the touch area of the thumb.
+    private float mTargetRadiusPx;
+
+    // Indicates whether this thumb is currently pressed and active.
+    private boolean mIsPressed = false;
+
+    // The y-position of the thumb in the parent view. This only changes when
+    // the parent view is resized.
+    private float mY;
+
+    // The current x-position of the thumb in the parent view.
+    private float mX;
+
+    // The x-position the thumb is drawn at; differs from mX only while a
+    // predicted position is shown during a drag.
+    private float mDrawX;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    public float getTargetRadius() {
+        return mTargetRadiusPx;
+    }
+
+    public void setTargetRadius(float targetRadiusPx) {
+        mTargetRadiusPx = targetRadiusPx;
+    }
+
+    /**
+     * Moves the thumb, and draws it at the new position.
+     */
+    public void setX(float x) {
+        mX = x;
+        mDrawX = x;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    /**
+     * Draws the thumb at a position other than its own, e.g. one predicted
+     * from the touch velocity. Snapping and hit-testing still use
+     * {@link #getX()}.
+     * 
+     * @param drawX the x-coordinate to draw the thumb at
+     */
+    public void setDrawX(float drawX) {
+        mDrawX = drawX;
+    }
+
+    public float getDrawX() {
+        return mDrawX;
+    }
+
+    public void setY(float y) {
+        mY = y;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public boolean isPressed() {
+        return mIsPressed;
+    }
+
+    public void press() {
+        mIsPressed = true;
+    }
+
+    public void release() {
+        mIsPressed = false;
+    }
+
+    /**
+     * Determines if the input coordinate is close enough to this thumb to
+     * consider it a press.
+     * 
+     * @param x the x-coordinate of the user touch
+     * @param y the y-coordinate of the user touch
+     * @return true if the coordinates are within this thumb's target area;
+     *         false otherwise
+     */
+    public boolean isInTargetZone(float x, float y) {
+
+        if (Math.abs(x - mX) <= mTargetRadiusPx && Math.abs(y - mY) <= mTargetRadiusPx) {
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * The positions of the tick marks along the bar of a RangeBar. This class
+ * contains no drawing code; it is shared by the Android views and any code
+ * that needs to snap coordinates to ticks on a plain JVM.
+ * <p>
+ * All tick positions, snapping and thumb placement go through this class and
+ * are computed in fixed point: coordinates are rounded once to 1/256 of a
+ * pixel, and the position of tick i is left + length * i / (tickCount - 1)
+ * computed exactly with integers and rounded to the nearest unit. The first
+ * and last ticks are therefore exactly at the ends of the bar, snapping the
+ * coordinate of a tick returns that tick for any tick count whose ticks are
+ * at least 1/256 px apart, and the results do not depend on the float
+ * rounding of a particular bar length.
+ */
+public class TickGeometry {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // Number of fractional bits of the fixed-point coordinates. With 8 bits
+    // the products of a bar up to 2^22 px long and any int tick count, times
+    // two for rounding, fit in a long.
+    public static final int FRACTION_BITS = 8;
+
+    private static final float ONE = 1 << FRACTION_BITS;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Left-coordinate and length of the horizontal bar, in fixed point.
+    private long mLeft;
+    private long mLength;
+
+    private int mNumSegments;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    public TickGeometry(float x, float length, int tickCount) {
+
+        mLeft = toFixed(x);
+        mLength = toFixed(length);
+
+        mNumSegments = tickCount - 1;
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Converts a coordinate to fixed point, rounding to the nearest unit.
+     * 
+     * @param value the coordinate in pixels
+     * @return the coordinate in 1/256 pixels
+     */
+    public static long toFixed(float value) {
+        return Math.round(value * (double) ONE);
+    }
+
+    /**
+     * Converts a fixed-point coordinate to pixels.
+     * 
+     * @param value the coordinate in 1/256 pixels
+     * @return the coordinate in pixels
+     */
+    public static float toFloat(long value) {
+        return value / ONE;
+    }
+
+    /**
+     * Moves the bar to a new position.
+     * 
+     * @param x the x-coordinate of the left edge of the bar
+     * @param length the length of the bar
+     */
+    public void setPosition(float x, float length) {
+
+        mLeft = toFixed(x);
+        mLength = toFixed(length);
+    }
+
+    /**
+     * Set the number of ticks that will appear in the RangeBar.
+     * 
+     * @param tickCount the number of ticks
+     */
+    public void setTickCount(int tickCount) {
+        mNumSegments = tickCount - 1;
+    }
+
+    /**
+     * Gets the number of ticks on the bar.
+     * 
+     * @return the number of ticks
+     */
+    public int getTickCount() {
+        return mNumSegments + 1;
+    }
+
+    /**
+     * Get the x-coordinate of the left edge of the bar.
+     * 
+     * @return x-coordinate of the left edge of the bar
+     */
+    public float getLeftX() {
+        return toFloat(mLeft);
+    }
+
+    /**
+     * Get the x-coordinate of the right edge of the bar.
+     * 
+     * @return x-coordinate of the right edge of the bar
+     */
+    public float getRightX() {
+        return toFloat(mLeft + mLength);
+    }
+
+    /**
+     * Gets the distance between two adjacent ticks.
+     * 
+     * @return the distance between ticks
+     */
+    public float getTickDistance() {
+        return toFloat(mLength) / mNumSegments;
+    }
+
+    /**
+     * Gets the x-coordinate of the tick with the given index.
+     * 
+     * @param index the zero-based index of the tick
+     * @return the x-coordinate of the tick
+     */
+    public float getTickCoordinate(int index) {
+        return toFloat(getTickCoordinateFixed(index));
+    }
+
+    /**
+     * Gets the fixed-point x-coordinate of the tick with the given index.
+     * 
+     * @param index the zero-based index of the tick
+     * @return the x-coordinate of the tick in 1/256 pixels
+     */
+    public long getTickCoordinateFixed(int index) {
+        return mLeft + divideRounded(mLength * index, mNumSegments);
+    }
+
+    /**
+     * Gets the x-coordinate of the nearest tick to the given x-coordinate.
+     * 
+     * @param x the x-coordinate to find the nearest tick for
+     * @return the x-coordinate of the nearest tick
+     */
+    public float getNearestTickCoordinate(float x) {
+        return getTickCoordinate(getNearestTickIndex(x));
+    }
+
+    /**
+     * Gets the zero-based index of the nearest tick to the given x-coordinate.
+     * Coordinates beyond the ends of the bar snap to the first or last tick,
+     * and a coordinate exactly halfway between two ticks to the right one.
+     * 
+     * @param x the x-coordinate to find the nearest tick for
+     * @return the zero-based index of the nearest tick
+     */
+    public int getNearestTickIndex(float x) {
+
+        // A bar without length has all its ticks at the left edge.
+        if (mLength <= 0) {
+            return 0;
+        }
+
+        final long offset = toFixed(x) - mLeft;
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset >= mLength) {
+            return mNumSegments;
+        }
+
+        // The index i minimizing |offset - length * i / segments|, i.e.
+        // round(offset * segments / length), exactly.
+        final int index = (int) divideRounded(offset * mNumSegments, mLength);
+
+        // Tick coordinates are rounded themselves, so make sure the returned
+        // tick is the one whose rounded coordinate is nearest.
+        if (index < mNumSegments
+                && getTickCoordinateFixed(index + 1) - mLeft - offset <= offset - (getTickCoordinateFixed(index) - mLeft)) {
+            return index + 1;
+        }
+        if (index > 0
+                && offset - (getTickCoordinateFixed(index - 1) - mLeft) < getTickCoordinateFixed(index) - mLeft - offset) {
+            return index - 1;
+        }
+        return index;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Divides by a positive number, rounding half up, also for negative
+     * numerators.
+     */
+    private static long divideRounded(long numerator, long denominator) {
+
+        final long twice = numerator * 2 + denominator;
+        final long quotient = twice / (denominator * 2);
+        return (twice % (denominator * 2) < 0) ? quotient - 1 : quotient;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+/**
+ * Estimates where a dragging finger will be a short time after the last
+ * touch sample, so that a thumb can be drawn where the finger is likely to be
+ * when the frame reaches the display rather than where it was when the event
+ * was read. The velocity is the average over the samples of the last
+ * {@link #WINDOW_NANOS}, historical samples included; the prediction is turned
+ * off while those samples change direction, so that a thumb never overshoots
+ * when the finger turns back.
+ * <p>
+ * The predicted position is only meant for drawing; snapping and indices must
+ * keep using the real samples. Adding samples and predicting do not allocate.
+ */
+public class TouchPredictor {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // Samples older than this, relative to the newest one, are not used.
+    public static final long WINDOW_NANOS = 40000000L;
+
+    // The number of samples kept; more than a window's worth at 240Hz.
+    private static final int CAPACITY = 16;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // A ring buffer of samples; mNext is where the next one goes.
+    private final float[] mX = new float[CAPACITY];
+    private final long[] mTime = new long[CAPACITY];
+    private int mNext;
+    private int mSize;
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Forgets all samples, e.g. when a new drag starts.
+     */
+    public void reset() {
+        mNext = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Adds a touch sample. Samples must be added in order of time; one that is
+     * not newer than the last one replaces it.
+     * 
+     * @param x the x-coordinate of the touch
+     * @param timeNanos the time of the sample, in nanoseconds
+     */
+    public void addSample(float x, long timeNanos) {
+
+        if (mSize > 0 && timeNanos <= mTime[index(0)]) {
+            mX[index(0)] = x;
+            return;
+        }
+
+        mX[mNext] = x;
+        mTime[mNext] = timeNanos;
+        mNext = (mNext + 1) % CAPACITY;
+        if (mSize < CAPACITY) {
+            mSize++;
+        }
+    }
+
+    /**
+     * Returns whether there is a sample to predict from.
+     */
+    public boolean hasSamples() {
+        return mSize > 0;
+    }
+
+    /**
+     * Gets the x-coordinate of the newest sample.
+     * 
+     * @return the x-coordinate, or 0 if there are no samples
+     */
+    public float getLastX() {
+        return (mSize > 0) ? mX[index(0)] : 0;
+    }
+
+    /**
+     * Extrapolates the touch position at the given time from the newest
+     * sample and the velocity over the window.
+     * 
+     * @param timeNanos the time to predict the position at, in nanoseconds;
+     *            usually the newest sample's time plus the display latency
+     * @return the predicted x-coordinate; the newest sample if there is only
+     *         one sample in the window, the samples change direction or the
+     *         time is not after the newest sample
+     */
+    public float predict(long timeNanos) {
+
+        if (mSize == 0) {
+            return 0;
+        }
+
+        final float lastX = mX[index(0)];
+        final long lastTime = mTime[index(0)];
+
+        if (timeNanos <= lastTime) {
+            return lastX;
+        }
+
+        // Walk back from the newest sample while within the window, checking
+        // that every step goes the same way.
+        int direction = 0;
+        int oldest = 0;
+        for (int i = 1; i < mSize; i++) {
+
+            if (lastTime - mTime[index(i)] > WINDOW_NANOS) {
+                break;
+            }
+
+            final float step = mX[index(i - 1)] - mX[index(i)];
+            final int stepDirection = (step > 0) ? 1 : (step < 0) ? -1 : 0;
+            if (stepDirection != 0) {
+                if (direction != 0 && stepDirection != direction) {
+                    return lastX;
+                }
+                direction = stepDirection;
+            }
+            oldest = i;
+        }
+
+        if (oldest == 0) {
+            return lastX;
+        }
+
+        final float velocity = (lastX - mX[index(oldest)]) / (lastTime - mTime[index(oldest)]);
+        return lastX + velocity * (timeNanos - lastTime);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Gets the position in the ring buffer of a sample.
+     * 
+     * @param age 0 for the newest sample, 1 for the one before, etc.
+     */
+    private int index(int age) {
+        return (mNext - 1 - age + 2 * CAPACITY) % CAPACITY;
+    }
+}
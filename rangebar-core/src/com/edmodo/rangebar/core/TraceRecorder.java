@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar.core;
+
+import java.io.IOException;
+
+/**
+ * Records timestamped begin/end events of named sections into a ring buffer
+ * that is allocated up front, so that the most recent events can be exported
+ * at any time without attaching a profiler. When the buffer is full the
+ * oldest events are overwritten.
+ * <p>
+ * Sections are identified by their index into the array of names passed to
+ * the constructor. The buffer is exported in the Chrome trace event JSON
+ * format, which can be opened in chrome://tracing or the Perfetto UI.
+ */
+public class TraceRecorder {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    public static final int PHASE_BEGIN = 0;
+    public static final int PHASE_END = 1;
+
+    private static final char[] PHASE_CODES = { 'B', 'E' };
+
+    // Threads tracked when matching begin and end events during export.
+    private static final int MAX_EXPORTED_THREADS = 16;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final String[] mNames;
+
+    private final long[] mTimestamps;
+    private final long[] mThreadIds;
+    private final int[] mSections;
+    private final byte[] mPhases;
+
+    // Total number of events recorded; the next event is written at
+    // mEventCount % capacity.
+    private long mEventCount;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a recorder.
+     * 
+     * @param names the names of the sections, indexed by section id
+     * @param capacity the maximum number of events kept
+     */
+    public TraceRecorder(String[] names, int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1.");
+        }
+
+        mNames = names.clone();
+        mTimestamps = new long[capacity];
+        mThreadIds = new long[capacity];
+        mSections = new int[capacity];
+        mPhases = new byte[capacity];
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Records the start of a section on the current thread.
+     * 
+     * @param section the id of the section
+     */
+    public void begin(int section) {
+        record(section, PHASE_BEGIN);
+    }
+
+    /**
+     * Records the end of a section on the current thread.
+     * 
+     * @param section the id of the section
+     */
+    public void end(int section) {
+        record(section, PHASE_END);
+    }
+
+    public synchronized void clear() {
+        mEventCount = 0;
+    }
+
+    /**
+     * Gets the number of events currently held in the buffer.
+     */
+    public synchronized int size() {
+        return (int) Math.min(mEventCount, mTimestamps.length);
+    }
+
+    /**
+     * Writes the buffered events as a Chrome trace event JSON document. End
+     * events whose begin event has already been overwritten are skipped.
+     * 
+     * @param out where to write the trace
+     * @throws IOException if writing to out fails
+     */
+    public synchronized void writeChromeTrace(Appendable out) throws IOException {
+
+        final int capacity = mTimestamps.length;
+        final int size = size();
+        final int first = (int) ((mEventCount - size) % capacity);
+
+        // Nesting depth of each thread seen so far.
+        final long[] threads = new long[MAX_EXPORTED_THREADS];
+        final int[] depths = new int[MAX_EXPORTED_THREADS];
+        int threadCount = 0;
+
+        out.append("{\"traceEvents\":[");
+
+        boolean needsComma = false;
+        for (int i = 0; i < size; i++) {
+
+            final int event = (first + i) % capacity;
+
+            int thread = 0;
+            while (thread < threadCount && threads[thread] != mThreadIds[event]) {
+                thread++;
+            }
+            if (thread == threadCount && threadCount < MAX_EXPORTED_THREADS) {
+                threads[threadCount++] = mThreadIds[event];
+            }
+
+            if (thread < threadCount) {
+                if (mPhases[event] == PHASE_BEGIN) {
+                    depths[thread]++;
+                } else if (depths[thread] == 0) {
+                    continue;
+                } else {
+                    depths[thread]--;
+                }
+            }
+
+            if (needsComma) {
+                out.append(',');
+            }
+            needsComma = true;
+
+            final long micros = mTimestamps[event] / 1000;
+            final long nanos = mTimestamps[event] % 1000;
+
+            out.append("{\"name\":\"").append(mNames[mSections[event]])
+               .append("\",\"cat\":\"rangebar\",\"ph\":\"").append(PHASE_CODES[mPhases[event]])
+               .append("\",\"ts\":").append(Long.toString(micros)).append('.')
+               .append(Long.toString(nanos / 100)).append(Long.toString(nanos / 10 % 10)).append(Long.toString(nanos % 10))
+               .append(",\"pid\":1,\"tid\":").append(Long.toString(mThreadIds[event]))
+               .append('}');
+        }
+
+        out.append("],\"displayTimeUnit\":\"ms\"}");
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private synchronized void record(int section, int phase) {
+
+        final int event = (int) (mEventCount % mTimestamps.length);
+
+        mTimestamps[event] = System.nanoTime();
+        mThreadIds[event] = Thread.currentThread().getId();
+        mSections[event] = section;
+        mPhases[event] = (byte) phase;
+
+        mEventCount++;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.edmodo.rangebar.core.RangeBarCanvas;
+import com.edmodo.rangebar.core.RangeBarPainter;
+
+/**
+ * Forwards the operations of a {@link RangeBarPainter} to an Android
+ * {@link Canvas}, mapping the paint and image ids to the Paints and Bitmaps
+ * registered by {@link Bar}, {@link ConnectingLine} and {@link Thumb}.
+ */
+class AndroidCanvas implements RangeBarCanvas {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final Paint[] mPaints = new Paint[RangeBarPainter.PAINT_COUNT];
+    private final Bitmap[] mImages = new Bitmap[RangeBarPainter.IMAGE_COUNT];
+
+    // The Canvas of the frame currently being drawn.
+    private Canvas mCanvas;
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    void setPaint(int paint, Paint value) {
+        mPaints[paint] = value;
+    }
+
+    void setImage(int image, Bitmap value) {
+        mImages[image] = value;
+    }
+
+    /**
+     * Drops the registered Paints and Bitmaps, so that they can be garbage
+     * collected. They must be registered again before the next draw.
+     */
+    void clear() {
+
+        for (int i = 0; i < mPaints.length; i++) {
+            mPaints[i] = null;
+        }
+        for (int i = 0; i < mImages.length; i++) {
+            mImages[i] = null;
+        }
+    }
+
+    // RangeBarCanvas Methods //////////////////////////////////////////////////
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, int paint) {
+        mCanvas.drawLine(startX, startY, stopX, stopY, mPaints[paint]);
+    }
+
+    @Override
+    public void drawLines(float[] pts, int count, int paint) {
+        mCanvas.drawLines(pts, 0, count, mPaints[paint]);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, int paint) {
+        mCanvas.drawCircle(cx, cy, radius, mPaints[paint]);
+    }
+
+    @Override
+    public void drawImage(int image, float left, float top) {
+        mCanvas.drawBitmap(mImages[image], left, top, null);
+    }
+
+    @Override
+    public void save() {
+        mCanvas.save();
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mCanvas.translate(dx, dy);
+    }
+
+    @Override
+    public void restore() {
+        mCanvas.restore();
+    }
+}
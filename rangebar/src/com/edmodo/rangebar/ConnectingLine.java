@@ -15,12 +15,14 @@ package com.edmodo.rangebar;
 
 import android.content.Context;
 import android.content.res.Resources;
-import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.TypedValue;
 
+import com.edmodo.rangebar.core.RangeBarPainter;
+
 /**
- * Class representing the blue connecting line between the two thumbs.
+ * Class representing the blue connecting line between the two thumbs. The
+ * line is drawn by the {@link RangeBarPainter} with this class's Paint.
  */
 class ConnectingLine {
 
@@ -29,11 +31,10 @@ class ConnectingLine {
     private final Paint mPaint;
 
     private final float mConnectingLineWeight;
-    private final float mY;
 
     // Constructor /////////////////////////////////////////////////////////////
 
-    ConnectingLine(Context ctx, float y, float connectingLineWeight, int connectingLineColor) {
+    ConnectingLine(Context ctx, float connectingLineWeight, int connectingLineColor) {
 
         final Resources res = ctx.getResources();
 
@@ -46,20 +47,16 @@ class ConnectingLine {
         mPaint.setColor(connectingLineColor);
         mPaint.setStrokeWidth(mConnectingLineWeight);
         mPaint.setAntiAlias(true);
-
-        mY = y;
     }
 
     // Package-Private Methods /////////////////////////////////////////////////
 
     /**
-     * Draw the connecting line between the two thumbs.
+     * Registers the connecting line's Paint with the canvas.
      * 
-     * @param canvas the Canvas to draw to
-     * @param leftThumb the left thumb
-     * @param rightThumb the right thumb
+     * @param canvas the canvas the painter draws to
      */
-    void draw(Canvas canvas, Thumb leftThumb, Thumb rightThumb) {
-        canvas.drawLine(leftThumb.getX(), mY, rightThumb.getX(), mY, mPaint);
+    void apply(AndroidCanvas canvas) {
+        canvas.setPaint(RangeBarPainter.PAINT_CONNECTING_LINE, mPaint);
     }
 }
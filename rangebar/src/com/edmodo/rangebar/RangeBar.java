@@ -14,15 +14,36 @@
 package com.edmodo.rangebar;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Parcelable;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.MotionEvent;
-import android.view.View;
+import android.view.ViewGroup;
+
+import com.edmodo.rangebar.core.GestureRecording;
+import com.edmodo.rangebar.core.IndexChangeDispatcher;
+import com.edmodo.rangebar.core.IndexMapping;
+import com.edmodo.rangebar.core.ListenerArray;
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarMetrics;
+import com.edmodo.rangebar.core.RangeBarPainter;
+import com.edmodo.rangebar.core.RangeModel;
+import com.edmodo.rangebar.core.ThumbModel;
+import com.edmodo.rangebar.core.TickGeometry;
+import com.edmodo.rangebar.core.TouchPredictor;
+import com.edmodo.rangebar.core.TraceRecorder;
+
+import java.io.IOException;
 
 /**
  * The RangeBar is a double-sided version of a {@link android.widget.SeekBar}
@@ -35,31 +56,65 @@ import android.view.View;
  * {@link RangeBar#OnRangeBarChangeListener} to be notified when the thumbs have
  * been moved.
  */
-public class RangeBar extends View {
+public class RangeBar extends ViewGroup {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // What caused a change reported to an OnRangeBarChangeEventListener.
+    public static final int ORIGIN_USER_DRAG = 0;
+    public static final int ORIGIN_USER_TAP = 1;
+    public static final int ORIGIN_PROGRAMMATIC = 2;
+    public static final int ORIGIN_RESTORE = 3;
+    public static final int ORIGIN_RESIZE = 4;
+
+    // Where in a drag a change happened; DRAG_PHASE_NONE unless the origin is
+    // ORIGIN_USER_DRAG.
+    public static final int DRAG_PHASE_NONE = 0;
+    public static final int DRAG_PHASE_MOVE = 1;
+    public static final int DRAG_PHASE_END = 2;
+
+    // When RangeBars release their thumb images, Paints and cached snapshots;
+    // see setTrimPolicy().
+    public static final int TRIM_POLICY_NEVER = 0;
+    public static final int TRIM_POLICY_BACKGROUND = 1;
+    public static final int TRIM_POLICY_AGGRESSIVE = 2;
 
     // Member Variables ////////////////////////////////////////////////////////
 
     private static final String TAG = "RangeBar";
 
-    // Default values for variables
+    // Number of events kept by the trace recorder, about 2.5 seconds of
+    // continuous dragging at 60fps.
+    private static final int DEFAULT_TRACE_CAPACITY = 4096;
+
+    // How far ahead of a touch event the thumb is drawn with touch prediction
+    // enabled: about a frame at 60fps, which is less than the latency of the
+    // display pipeline so that a wrong prediction errs on the side of
+    // trailing the finger.
+    private static final long PREDICTION_HORIZON_NANOS = 16000000L;
+
+    // Default values for variables; shared with RangeBarGroup.
     private static final int DEFAULT_TICK_COUNT = 3;
-    private static final float DEFAULT_TICK_HEIGHT_DP = 24;
-    private static final float DEFAULT_BAR_WEIGHT_PX = 2;
-    private static final int DEFAULT_BAR_COLOR = Color.LTGRAY;
-    private static final float DEFAULT_CONNECTING_LINE_WEIGHT_PX = 4;
-    private static final int DEFAULT_THUMB_IMAGE_NORMAL = R.drawable.seek_thumb_normal;
-    private static final int DEFAULT_THUMB_IMAGE_PRESSED = R.drawable.seek_thumb_pressed;
+    static final float DEFAULT_TICK_HEIGHT_DP = 24;
+    static final float DEFAULT_BAR_WEIGHT_PX = 2;
+    static final int DEFAULT_BAR_COLOR = Color.LTGRAY;
+    static final float DEFAULT_CONNECTING_LINE_WEIGHT_PX = 4;
+    static final int DEFAULT_THUMB_IMAGE_NORMAL = R.drawable.seek_thumb_normal;
+    static final int DEFAULT_THUMB_IMAGE_PRESSED = R.drawable.seek_thumb_pressed;
 
     // Corresponds to android.R.color.holo_blue_light.
-    private static final int DEFAULT_CONNECTING_LINE_COLOR = 0xff33b5e5;
+    static final int DEFAULT_CONNECTING_LINE_COLOR = 0xff33b5e5;
 
     // Indicator value tells Thumb.java whether it should draw the circle or not
-    private static final float DEFAULT_THUMB_RADIUS_DP = -1;
-    private static final int DEFAULT_THUMB_COLOR_NORMAL = -1;
-    private static final int DEFAULT_THUMB_COLOR_PRESSED = -1;
+    static final float DEFAULT_THUMB_RADIUS_DP = -1;
+    static final int DEFAULT_THUMB_COLOR_NORMAL = -1;
+    static final int DEFAULT_THUMB_COLOR_PRESSED = -1;
+
+    // Values of the thumbBitmapConfig attribute.
+    static final int THUMB_BITMAP_CONFIG_ARGB_8888 = 0;
+    static final int THUMB_BITMAP_CONFIG_RGB_565 = 1;
 
     // Instance variables for all of the customizable attributes
-    private int mTickCount = DEFAULT_TICK_COUNT;
     private float mTickHeightDP = DEFAULT_TICK_HEIGHT_DP;
     private float mBarWeight = DEFAULT_BAR_WEIGHT_PX;
     private int mBarColor = DEFAULT_BAR_COLOR;
@@ -72,36 +127,179 @@ public class RangeBar extends View {
     private int mThumbColorNormal = DEFAULT_THUMB_COLOR_NORMAL;
     private int mThumbColorPressed = DEFAULT_THUMB_COLOR_PRESSED;
 
-    // setTickCount only resets indices before a thumb has been pressed or a
-    // setThumbIndices() is called, to correspond with intended usage
-    private boolean mFirstSetTickCount = true;
+    // The config thumb images are decoded with; null for ARGB_8888.
+    private Bitmap.Config mThumbBitmapConfig;
+
+    // Screen density the components were last created for.
+    private float mDensity;
 
     private int mDefaultWidth = 500;
     private int mDefaultHeight = 100;
 
-    private Thumb mLeftThumb;
-    private Thumb mRightThumb;
+    // Draws both thumbs; their positions are held by the controller.
+    private Thumb mThumb;
     private Bar mBar;
     private ConnectingLine mConnectingLine;
 
-    private RangeBar.OnRangeBarChangeListener mListener;
-    private int mLeftIndex = 0;
-    private int mRightIndex = mTickCount - 1;
+    // In static snapshot mode the components above are only created once a
+    // thumb is pressed; until then mShowingSnapshot is set and a cached image
+    // of the bar is drawn instead.
+    private boolean mStaticSnapshot;
+    private boolean mShowingSnapshot;
+
+    // The indices when the current gesture started; in static snapshot mode a
+    // gesture that leaves them unchanged returns the RangeBar to its snapshot.
+    private int mDownLeftIndex;
+    private int mDownRightIndex;
+
+    // Set once the components above were released to save memory; until the
+    // next onDraw creates them all again, the setters only record the style.
+    private boolean mReleased;
+
+    // True while making several changes that must not each schedule a frame:
+    // recreating released components in onDraw, or applying a posted update,
+    // which invalidates once afterwards.
+    private boolean mSuppressInvalidate;
+
+    // Reused to look up the snapshot of the current state.
+    private final RangeBarSnapshots.Key mSnapshotKey = new RangeBarSnapshots.Key();
+
+    // Child Views drawing the connecting line and the thumbs, so that a drag
+    // only moves them; created on API 11+ and only shown (mLayersActive) in
+    // hardware-accelerated windows. Otherwise onDraw draws everything.
+    private SelectionLayers mSelectionLayers;
+    private boolean mLayersActive;
+
+    // Copy-on-write, so that dispatching iterates a plain array and
+    // listeners can be (un)registered during dispatch.
+    private final ListenerArray<RangeBar.OnRangeBarChangeListener> mChangeListeners = new ListenerArray<RangeBar.OnRangeBarChangeListener>();
+    private final ListenerArray<RangeBar.OnRangeBarDragListener> mDragListeners = new ListenerArray<RangeBar.OnRangeBarDragListener>();
+    private final ListenerArray<RangeBar.OnRangeBarChangeEventListener> mChangeEventListeners = new ListenerArray<RangeBar.OnRangeBarChangeEventListener>();
+
+    // Call the listeners above for an index change; the change event carries
+    // the current mChangeOrigin and mDragPhase.
+    private final IndexChangeDispatcher<RangeBar.OnRangeBarChangeListener> mChangeDispatcher = new IndexChangeDispatcher<RangeBar.OnRangeBarChangeListener>(mChangeListeners) {
+        @Override
+        protected void dispatch(RangeBar.OnRangeBarChangeListener listener, int leftThumbIndex, int rightThumbIndex) {
+            listener.onIndexChangeListener(RangeBar.this, leftThumbIndex, rightThumbIndex);
+        }
+    };
+
+    private final IndexChangeDispatcher<RangeBar.OnRangeBarChangeEventListener> mChangeEventDispatcher = new IndexChangeDispatcher<RangeBar.OnRangeBarChangeEventListener>(mChangeEventListeners) {
+        @Override
+        protected void dispatch(RangeBar.OnRangeBarChangeEventListener listener, int leftThumbIndex, int rightThumbIndex) {
+            listener.onRangeBarChange(RangeBar.this, leftThumbIndex, rightThumbIndex, mChangeOrigin, mDragPhase);
+        }
+    };
+
+    // Receives the continuous thumb positions during a drag; null unless set.
+    private RangeBar.OnRangeBarPreviewListener mPreviewListener;
+
+    // Reused for every preview, so that the stream does not allocate.
+    private final RangeBar.PreviewEvent mPreviewEvent = new RangeBar.PreviewEvent();
+
+    // True while a preview is scheduled for the next frame, which happens
+    // through mPreviewFrameCallback (a Choreographer.FrameCallback) on API
+    // 16+ and mPreviewRunnable below that; both are created with the listener.
+    private boolean mPreviewPending;
+    private Object mPreviewFrameCallback;
+    private Runnable mPreviewRunnable;
+
+    // The origin and drag phase of the index changes the controller reports;
+    // set around the calls into it that are not programmatic.
+    private int mChangeOrigin = ORIGIN_PROGRAMMATIC;
+    private int mDragPhase = DRAG_PHASE_NONE;
+
+    // Set while a posted update is applied, so that its changes are reported
+    // once at the end; mChangeCoalesced records whether there were any.
+    private boolean mCoalescingChanges;
+    private boolean mChangeCoalesced;
+
+    // Forwards index changes from the controller to the client's listeners.
+    private final RangeBarController.OnIndexChangeListener mIndexChangeListener = new RangeBarController.OnIndexChangeListener() {
+        @Override
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+            if (mCoalescingChanges) {
+                mChangeCoalesced = true;
+                return;
+            }
+            if (mGestureRecording != null) {
+                mGestureRecording.addIndexChange(leftThumbIndex, rightThumbIndex);
+            }
+            if (mRangeModel != null && !mApplyingRangeModel) {
+                pushToRangeModel(leftThumbIndex, rightThumbIndex);
+            }
+            if (!mChangeListeners.isEmpty() || !mChangeEventListeners.isEmpty()) {
+                final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.LISTENER);
+                final long start = (mMetrics != null) ? System.nanoTime() : 0;
+
+                mChangeDispatcher.onIndexChange(leftThumbIndex, rightThumbIndex);
+                mChangeEventDispatcher.onIndexChange(leftThumbIndex, rightThumbIndex);
+
+                if (mMetrics != null) {
+                    mMetrics.record(RangeBarMetrics.HISTOGRAM_LISTENER, System.nanoTime() - start);
+                }
+                RangeBarTrace.end(trace, RangeBarTrace.LISTENER);
+            }
+        }
+    };
+
+    // The shared range this bar is bound to, if any, and how its indices map
+    // onto the ticks of this bar.
+    private RangeModel mRangeModel;
+    private IndexMapping mIndexMapping;
+
+    // True while the indices are being set from the model, so that the change
+    // is not echoed back to it.
+    private boolean mApplyingRangeModel;
+
+    private final RangeModel.OnRangeChangeListener mRangeModelListener = new RangeModel.OnRangeChangeListener() {
+        @Override
+        public void onRangeChange(RangeModel model, Object source) {
+            applyRangeModel();
+        }
+    };
+
+    // Holds the tick count and thumb indices, and handles the touch logic.
+    private final RangeBarController mController = new RangeBarController(DEFAULT_TICK_COUNT, mIndexChangeListener);
+
+    // Applies the updates posted from other threads.
+    private final RangeBarUpdater mUpdater = new RangeBarUpdater(this);
+
+    // Issues the draw operations for each frame, which mCanvas forwards to
+    // the Canvas passed to onDraw using the Paints and Bitmaps of the
+    // components above.
+    private final RangeBarPainter mPainter = new RangeBarPainter();
+    private final AndroidCanvas mCanvas = new AndroidCanvas();
+
+    // Performance metrics; null unless enabled with setMetricsEnabled().
+    private RangeBarMetrics mMetrics;
+
+    // MotionEvent.getEventTime() of the oldest touch event that changed the
+    // RangeBar since the last frame, in uptime milliseconds, or -1.
+    private long mPendingTouchTime = -1;
+
+    // The touch events being recorded; null unless started with
+    // startGestureRecording().
+    private GestureRecording mGestureRecording;
 
     // Constructors ////////////////////////////////////////////////////////////
 
     public RangeBar(Context context) {
         super(context);
+        initSelectionLayers();
     }
 
     public RangeBar(Context context, AttributeSet attrs) {
         super(context, attrs);
         rangeBarInit(context, attrs);
+        initSelectionLayers();
     }
 
     public RangeBar(Context context, AttributeSet attrs, int defStyle) {
         super(context, attrs, defStyle);
         rangeBarInit(context, attrs);
+        initSelectionLayers();
     }
 
     // View Methods ////////////////////////////////////////////////////////////
@@ -113,7 +311,7 @@ public class RangeBar extends View {
 
         bundle.putParcelable("instanceState", super.onSaveInstanceState());
 
-        bundle.putInt("TICK_COUNT", mTickCount);
+        bundle.putInt("TICK_COUNT", mController.getTickCount());
         bundle.putFloat("TICK_HEIGHT_DP", mTickHeightDP);
         bundle.putFloat("BAR_WEIGHT", mBarWeight);
         bundle.putInt("BAR_COLOR", mBarColor);
@@ -127,10 +325,10 @@ public class RangeBar extends View {
         bundle.putInt("THUMB_COLOR_NORMAL", mThumbColorNormal);
         bundle.putInt("THUMB_COLOR_PRESSED", mThumbColorPressed);
 
-        bundle.putInt("LEFT_INDEX", mLeftIndex);
-        bundle.putInt("RIGHT_INDEX", mRightIndex);
+        bundle.putInt("LEFT_INDEX", mController.getLeftIndex());
+        bundle.putInt("RIGHT_INDEX", mController.getRightIndex());
 
-        bundle.putBoolean("FIRST_SET_TICK_COUNT", mFirstSetTickCount);
+        bundle.putBoolean("FIRST_SET_TICK_COUNT", mController.isFirstSetTickCount());
 
         return bundle;
     }
@@ -142,7 +340,6 @@ public class RangeBar extends View {
 
             final Bundle bundle = (Bundle) state;
 
-            mTickCount = bundle.getInt("TICK_COUNT");
             mTickHeightDP = bundle.getFloat("TICK_HEIGHT_DP");
             mBarWeight = bundle.getFloat("BAR_WEIGHT");
             mBarColor = bundle.getInt("BAR_COLOR");
@@ -156,11 +353,12 @@ public class RangeBar extends View {
             mThumbColorNormal = bundle.getInt("THUMB_COLOR_NORMAL");
             mThumbColorPressed = bundle.getInt("THUMB_COLOR_PRESSED");
 
-            mLeftIndex = bundle.getInt("LEFT_INDEX");
-            mRightIndex = bundle.getInt("RIGHT_INDEX");
-            mFirstSetTickCount = bundle.getBoolean("FIRST_SET_TICK_COUNT");
+            mController.restoreTickCount(bundle.getInt("TICK_COUNT"),
+                                         bundle.getBoolean("FIRST_SET_TICK_COUNT"));
 
-            setThumbIndices(mLeftIndex, mRightIndex);
+            mChangeOrigin = ORIGIN_RESTORE;
+            setThumbIndices(bundle.getInt("LEFT_INDEX"), bundle.getInt("RIGHT_INDEX"));
+            mChangeOrigin = ORIGIN_PROGRAMMATIC;
 
             super.onRestoreInstanceState(bundle.getParcelable("instanceState"));
 
@@ -173,6 +371,8 @@ public class RangeBar extends View {
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
 
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ON_MEASURE);
+
         int width;
         int height;
 
@@ -201,6 +401,8 @@ public class RangeBar extends View {
         }
 
         setMeasuredDimension(width, height);
+
+        RangeBarTrace.end(trace, RangeBarTrace.ON_MEASURE);
     }
 
     @Override
@@ -208,53 +410,40 @@ public class RangeBar extends View {
 
         super.onSizeChanged(w, h, oldw, oldh);
 
-        final Context ctx = getContext();
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ON_SIZE_CHANGED);
 
-        // This is the initial point at which we know the size of the View.
+        // A snapshot is rendered for the new size when it is drawn; only the
+        // controller is laid out, to find the thumbs when the bar is touched.
+        if (mShowingSnapshot) {
+            layoutSnapshot();
+            RangeBarTrace.end(trace, RangeBarTrace.ON_SIZE_CHANGED);
+            return;
+        }
 
-        // Create the two thumb objects.
+        // This is the initial point at which we know the size of the View. The
+        // thumbs, bar and connecting line are only created here the first time
+        // (or if the screen density has changed); afterwards a resize only
+        // moves the existing components.
+        final float density = getResources().getDisplayMetrics().density;
+
+        if (mReleased || mThumb == null || mBar == null || mConnectingLine == null || density != mDensity) {
+            createComponents();
+        }
+
+        // Move the components to their new positions.
         final float yPos = h / 2f;
-        mLeftThumb = new Thumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
-        mRightThumb = new Thumb(ctx,
-                                yPos,
-                                mThumbColorNormal,
-                                mThumbColorPressed,
-                                mThumbRadiusDP,
-                                mThumbImageNormal,
-                                mThumbImagePressed);
-
-        // Create the underlying bar.
-        final float marginLeft = mLeftThumb.getHalfWidth();
+        final float marginLeft = mThumb.getHalfWidth();
         final float barLength = w - 2 * marginLeft;
-        mBar = new Bar(ctx, marginLeft, yPos, barLength, mTickCount, mTickHeightDP, mBarWeight, mBarColor);
 
         // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
-        mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
-
-        // Set the thumb indices.
-        final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
-        final int newRightIndex = mBar.getNearestTickIndex(mRightThumb);
+        mController.setLayout(marginLeft, yPos, barLength);
 
-        // Call the listener.
-        if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
-
-            mLeftIndex = newLeftIndex;
-            mRightIndex = newRightIndex;
-
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-            }
-        }
+        // Set the thumb indices, calling the listener if they changed.
+        mChangeOrigin = ORIGIN_RESIZE;
+        mController.updateIndices();
+        mChangeOrigin = ORIGIN_PROGRAMMATIC;
 
-        // Create the line connecting the two thumbs.
-        mConnectingLine = new ConnectingLine(ctx, yPos, mConnectingLineWeight, mConnectingLineColor);
+        RangeBarTrace.end(trace, RangeBarTrace.ON_SIZE_CHANGED);
     }
 
     @Override
@@ -262,12 +451,43 @@ public class RangeBar extends View {
 
         super.onDraw(canvas);
 
-        mBar.draw(canvas);
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ON_DRAW);
+        final long start = (mMetrics != null) ? System.nanoTime() : 0;
 
-        mConnectingLine.draw(canvas, mLeftThumb, mRightThumb);
+        if (mShowingSnapshot) {
+            drawSnapshot(canvas);
+        } else {
+            // The components were released to save memory.
+            if (mReleased) {
+                mSuppressInvalidate = true;
+                createComponents();
+                mSuppressInvalidate = false;
+
+                if (mLayersActive) {
+                    syncSelectionLayers();
+                }
+            }
+            mCanvas.setCanvas(canvas);
+            if (mLayersActive) {
+                // The line and the thumbs are drawn by the SelectionLayers.
+                mPainter.drawBar(mCanvas, mController.getGeometry(), mController.getY());
+            } else {
+                mPainter.draw(mCanvas, mController);
+            }
+            mCanvas.setCanvas(null);
+        }
 
-        mLeftThumb.draw(canvas);
-        mRightThumb.draw(canvas);
+        if (mMetrics != null) {
+            mMetrics.record(RangeBarMetrics.HISTOGRAM_DRAW, System.nanoTime() - start);
+
+            if (mPendingTouchTime >= 0) {
+                final long latencyMillis = SystemClock.uptimeMillis() - mPendingTouchTime;
+                mMetrics.record(RangeBarMetrics.HISTOGRAM_TOUCH_TO_DRAW, latencyMillis * 1000000L);
+                mPendingTouchTime = -1;
+            }
+        }
+
+        RangeBarTrace.end(trace, RangeBarTrace.ON_DRAW);
 
     }
 
@@ -279,20 +499,35 @@ public class RangeBar extends View {
             return false;
         }
 
+        if (mGestureRecording != null) {
+            recordGesture(event);
+        }
+
         switch (event.getAction()) {
 
             case MotionEvent.ACTION_DOWN:
-                onActionDown(event.getX(), event.getY());
+                mDownLeftIndex = mController.getLeftIndex();
+                mDownRightIndex = mController.getRightIndex();
+                onActionDown(event.getX(), event.getY(), event.getEventTime());
                 return true;
 
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
                 this.getParent().requestDisallowInterceptTouchEvent(false);
-                onActionUp(event.getX(), event.getY());
+                onActionUp(event.getX(), event.getY(), event.getEventTime());
+
+                if (mStaticSnapshot
+                        && mController.getLeftIndex() == mDownLeftIndex
+                        && mController.getRightIndex() == mDownRightIndex) {
+                    showSnapshot();
+                }
                 return true;
 
             case MotionEvent.ACTION_MOVE:
-                onActionMove(event.getX());
+                if (mController.getTouchPredictor() != null) {
+                    addPredictorSamples(event);
+                }
+                onActionMove(event.getX(), event.getEventTime());
                 this.getParent().requestDisallowInterceptTouchEvent(true);
                 return true;
 
@@ -301,50 +536,503 @@ public class RangeBar extends View {
         }
     }
 
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+
+        if (mLayersActive) {
+            syncSelectionLayers();
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+
+        // The SelectionLayers only draw; every touch is handled here.
+        return true;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        RangeBarMemory.onAttached(getContext(), this);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB && isHardwareAccelerated() != mLayersActive) {
+            mLayersActive = !mLayersActive;
+            mSelectionLayers.setVisible(mLayersActive);
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        RangeBarMemory.onDetached(this);
+
+        if (mStaticSnapshot) {
+            showSnapshot();
+        }
+    }
+
+    @Override
+    public void invalidate() {
+
+        if (mSuppressInvalidate) {
+            return;
+        }
+
+        super.invalidate();
+
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_INVALIDATIONS);
+        }
+
+        // The style or the state may have changed as well as the positions.
+        if (mLayersActive) {
+            syncSelectionLayers();
+            mSelectionLayers.invalidate();
+        }
+    }
+
     // Public Methods //////////////////////////////////////////////////////////
 
+    /**
+     * Enables or disables the collection of performance metrics: onDraw
+     * duration, invalidations, touch-to-draw latency, listener time and
+     * component rebuilds. Collection is off by default and does not allocate
+     * once enabled.
+     * 
+     * @param enabled true to collect metrics; false to stop and discard them
+     */
+    public void setMetricsEnabled(boolean enabled) {
+
+        if (enabled && mMetrics == null) {
+            mMetrics = new RangeBarMetrics();
+        } else if (!enabled) {
+            mMetrics = null;
+            mPendingTouchTime = -1;
+        }
+    }
+
+    /**
+     * Gets the performance metrics of this RangeBar. Use
+     * {@link RangeBarMetrics#snapshot(RangeBarMetrics.Snapshot)} on the UI
+     * thread to export them.
+     * 
+     * @return the metrics, or null if they are not enabled
+     */
+    public RangeBarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Enables or disables static snapshot mode, meant for RangeBars that only
+     * display a range and are rarely touched, e.g. read-only rows of a list.
+     * In this mode the RangeBar draws an image of itself that is rendered on
+     * a background thread and shared with every other RangeBar of the same
+     * style, size, tick count and indices through a process-wide LRU cache.
+     * The thumbs, bar and connecting line are only created when a thumb is
+     * pressed. The RangeBar returns to its snapshot when it is detached, or
+     * when a gesture ends without changing the indices; otherwise it stays
+     * interactive until this method is called again, e.g. when the row is
+     * rebound.
+     * <p>
+     * Enabling the mode releases the components of this RangeBar unless a
+     * thumb is being dragged. The RangeBar is blank until its snapshot has
+     * been rendered the first time.
+     * 
+     * @param enabled true to draw snapshots; false to always draw live
+     */
+    public void setStaticSnapshotEnabled(boolean enabled) {
+
+        mStaticSnapshot = enabled;
+
+        if (enabled) {
+            showSnapshot();
+        } else if (mShowingSnapshot) {
+            createComponents();
+        }
+    }
+
+    public boolean isStaticSnapshotEnabled() {
+        return mStaticSnapshot;
+    }
+
+    /**
+     * Sets the maximum memory used by the snapshots of all RangeBars in static
+     * snapshot mode. The default is 1/16 of the maximum heap size.
+     * 
+     * @param maxBytes the maximum number of bytes
+     */
+    public static void setSnapshotCacheSize(long maxBytes) {
+        RangeBarSnapshots.setMaxCacheBytes(maxBytes);
+    }
+
+    /**
+     * Enables or disables touch prediction. While a thumb is dragged, the
+     * finger's velocity is estimated from the touch samples of the last few
+     * frames, and the thumb is drawn where the finger is expected to be when
+     * the frame is shown rather than where it last was, so that it trails the
+     * finger less. The predicted position is clamped to the ends of the bar and
+     * not used while the finger changes direction. The indices, the listeners
+     * and the snapping on release only ever use the real touch positions.
+     * Prediction is off by default.
+     * 
+     * @param enabled true to draw the dragged thumb at a predicted position
+     */
+    public void setTouchPredictionEnabled(boolean enabled) {
+
+        if (enabled != isTouchPredictionEnabled()) {
+            mController.setTouchPredictor(enabled ? new TouchPredictor() : null);
+            invalidate();
+        }
+    }
+
+    public boolean isTouchPredictionEnabled() {
+        return mController.getTouchPredictor() != null;
+    }
+
+    /**
+     * Sets when RangeBars release the memory they hold: their thumb images
+     * and Paints, and the shared caches of prewarmed thumb images and static
+     * snapshots. Released resources are recreated the next time they are
+     * drawn, at the cost of decoding the thumb images again.
+     * <ul>
+     * <li>{@link #TRIM_POLICY_NEVER}: keep everything for the life of the
+     * RangeBar, as before this policy existed.</li>
+     * <li>{@link #TRIM_POLICY_BACKGROUND}: the default; release when the app's
+     * UI is hidden or memory is critically low (ComponentCallbacks2.onTrimMemory
+     * at TRIM_MEMORY_UI_HIDDEN and above, or TRIM_MEMORY_RUNNING_CRITICAL).</li>
+     * <li>{@link #TRIM_POLICY_AGGRESSIVE}: also release as soon as memory runs
+     * low while in the foreground (TRIM_MEMORY_RUNNING_LOW), and whenever a
+     * RangeBar is detached from its window.</li>
+     * </ul>
+     * The trim callbacks need API 14; on older versions only the release on
+     * detach applies. A RangeBar whose thumb is being dragged is never
+     * released. Releases are counted in
+     * {@link RangeBarMetrics#COUNTER_RESOURCE_RELEASES}.
+     * 
+     * @param policy one of the TRIM_POLICY_* constants
+     */
+    public static void setTrimPolicy(int policy) {
+
+        if (policy < TRIM_POLICY_NEVER || policy > TRIM_POLICY_AGGRESSIVE) {
+            Log.e(TAG, "Invalid trim policy " + policy);
+            throw new IllegalArgumentException("Invalid trim policy " + policy);
+        }
+        RangeBarMemory.setTrimPolicy(policy);
+    }
+
+    /**
+     * Gets the process-wide trim policy.
+     * 
+     * @return one of the TRIM_POLICY_* constants
+     */
+    public static int getTrimPolicy() {
+        return RangeBarMemory.getTrimPolicy();
+    }
+
+    /**
+     * Starts recording the touch events handled by this RangeBar, including
+     * their historical samples, and the index changes they cause. The
+     * recording can be saved with {@link GestureRecording#writeTo} and
+     * replayed on the host with {@link com.edmodo.rangebar.core.GestureReplayer}
+     * to reproduce a drag. Any recording in progress is discarded.
+     * <p>
+     * The recording captures the current layout, so start it after the
+     * RangeBar has been laid out, and avoid changing the indices or tick
+     * count from code until it is stopped.
+     */
+    public void startGestureRecording() {
+        mGestureRecording = new GestureRecording(mController);
+    }
+
+    /**
+     * Stops recording touch events.
+     * 
+     * @return the recording, or null if none was started
+     */
+    public GestureRecording stopGestureRecording() {
+
+        final GestureRecording recording = mGestureRecording;
+        mGestureRecording = null;
+        return recording;
+    }
+
+    /**
+     * Decodes the thumb images of a RangeBar style on a background thread and
+     * caches them, so that RangeBars using that style do no resource I/O or
+     * decoding when they are first laid out. Call it early, e.g. from
+     * Application.onCreate(); RangeBars created before it finishes simply
+     * decode their images themselves. The cached images are shared by all
+     * RangeBars of the style and kept for the life of the process.
+     * 
+     * @param context any Context; only its application context is retained
+     * @param style a style resource setting RangeBar attributes, or 0 for the
+     *            default thumbs
+     */
+    public static void prewarm(Context context, int style) {
+
+        final Resources res = context.getApplicationContext().getResources();
+
+        final int imageNormal;
+        final int imagePressed;
+        final boolean drawImages;
+        final Bitmap.Config config;
+
+        final TypedArray ta = context.obtainStyledAttributes(style, R.styleable.RangeBar);
+        try {
+            imageNormal = ta.getResourceId(R.styleable.RangeBar_thumbImageNormal, DEFAULT_THUMB_IMAGE_NORMAL);
+            imagePressed = ta.getResourceId(R.styleable.RangeBar_thumbImagePressed, DEFAULT_THUMB_IMAGE_PRESSED);
+
+            // The same test as in Thumb: any circle attribute replaces the
+            // images, whose size is then all that is needed.
+            drawImages = ta.getDimension(R.styleable.RangeBar_thumbRadius, DEFAULT_THUMB_RADIUS_DP) == -1
+                    && ta.getColor(R.styleable.RangeBar_thumbColorNormal, DEFAULT_THUMB_COLOR_NORMAL) == -1
+                    && ta.getColor(R.styleable.RangeBar_thumbColorPressed, DEFAULT_THUMB_COLOR_PRESSED) == -1;
+
+            config = (ta.getInt(R.styleable.RangeBar_thumbBitmapConfig, THUMB_BITMAP_CONFIG_ARGB_8888) == THUMB_BITMAP_CONFIG_RGB_565)
+                    ? Bitmap.Config.RGB_565
+                    : null;
+        } finally {
+            ta.recycle();
+        }
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                ThumbCache.prewarm(res, imageNormal, config, drawImages);
+                ThumbCache.prewarm(res, imagePressed, config, drawImages);
+            }
+        }, "RangeBar prewarm").start();
+    }
+
+    /**
+     * Enables or disables tracing of all RangeBars in the process. While
+     * enabled, the hot sections (measure, layout, draw, touch handling, thumb
+     * creation and listener calls) are emitted as platform trace sections on
+     * API 18+ and recorded into an in-process ring buffer that holds the most
+     * recent events. While disabled the overhead is a single field read per
+     * section.
+     * 
+     * @param enabled true to start tracing; false to stop
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        RangeBarTrace.setEnabled(enabled, DEFAULT_TRACE_CAPACITY);
+    }
+
+    /**
+     * Returns whether tracing is enabled.
+     * 
+     * @return true if tracing is enabled
+     */
+    public static boolean isTracingEnabled() {
+        return RangeBarTrace.isEnabled();
+    }
+
+    /**
+     * Writes the events recorded since tracing was last enabled in the Chrome
+     * trace event JSON format, which can be opened in the Perfetto UI or
+     * chrome://tracing. Can be called while tracing is enabled or after it
+     * was disabled.
+     * 
+     * @param out where to write the trace, e.g. a FileWriter
+     * @throws IOException if writing to out fails
+     */
+    public static void writeTrace(Appendable out) throws IOException {
+
+        final TraceRecorder recorder = RangeBarTrace.getLastRecorder();
+        if (recorder != null) {
+            recorder.writeChromeTrace(out);
+        } else {
+            new TraceRecorder(RangeBarTrace.NAMES, 1).writeChromeTrace(out);
+        }
+    }
+
     /**
      * Sets a listener to receive notifications of changes to the RangeBar. This
-     * will overwrite any existing set listeners.
+     * will overwrite any existing set listeners, including those added with
+     * {@link #addOnRangeBarChangeListener(OnRangeBarChangeListener)}.
      * 
      * @param listener the RangeBar notification listener; null to remove any
      *            existing listener
      */
     public void setOnRangeBarChangeListener(RangeBar.OnRangeBarChangeListener listener) {
-        mListener = listener;
+        mChangeListeners.clear();
+        mChangeListeners.add(listener);
     }
 
     /**
-     * Sets the number of ticks in the RangeBar.
+     * Adds a listener to be notified when either thumb's index changes, in
+     * addition to any listeners already registered. Listeners are called in
+     * the order they were added, and may be added or removed from within a
+     * callback; the change applies from the next notification.
      * 
-     * @param tickCount Integer specifying the number of ticks.
+     * @param listener the listener to add; ignored if null or already added
      */
-    public void setTickCount(int tickCount) {
+    public void addOnRangeBarChangeListener(RangeBar.OnRangeBarChangeListener listener) {
+        mChangeListeners.add(listener);
+    }
 
-        if (isValidTickCount(tickCount)) {
-            mTickCount = tickCount;
+    /**
+     * Removes a listener added with
+     * {@link #addOnRangeBarChangeListener(OnRangeBarChangeListener)} or set
+     * with {@link #setOnRangeBarChangeListener(OnRangeBarChangeListener)}.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeOnRangeBarChangeListener(RangeBar.OnRangeBarChangeListener listener) {
+        mChangeListeners.remove(listener);
+    }
 
-            // Prevents resetting the indices when creating new activity, but
-            // allows it on the first setting.
-            if (mFirstSetTickCount) {
-                mLeftIndex = 0;
-                mRightIndex = mTickCount - 1;
+    /**
+     * Adds a listener to be notified when either thumb's index changes, with
+     * what caused the change: a drag or tap by the user, a call from code, the
+     * restoring of the saved state or a resize. It is called for the same
+     * changes as an {@link OnRangeBarChangeListener}, plus once when a drag
+     * ends with {@link #DRAG_PHASE_END}, whether or not the release moved the
+     * thumb, so that work can be deferred until the user lets go.
+     * 
+     * @param listener the listener to add; ignored if null or already added
+     */
+    public void addOnRangeBarChangeEventListener(RangeBar.OnRangeBarChangeEventListener listener) {
+        mChangeEventListeners.add(listener);
+    }
 
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-                }
-            }
-            if (indexOutOfRange(mLeftIndex, mRightIndex))
-            {
-                mLeftIndex = 0;
-                mRightIndex = mTickCount - 1;
+    /**
+     * Removes a listener added with
+     * {@link #addOnRangeBarChangeEventListener(OnRangeBarChangeEventListener)}.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeOnRangeBarChangeEventListener(RangeBar.OnRangeBarChangeEventListener listener) {
+        mChangeEventListeners.remove(listener);
+    }
+
+    /**
+     * Binds this RangeBar to a range shared with other RangeBars, replacing
+     * any previous binding. The thumbs move to the model's current range
+     * right away. From then on, a change made on this bar (by a drag, a tap
+     * or setThumbIndices()) updates the model and every other bar bound to
+     * it in the same pass, without relayout; the bar that made the change is
+     * not notified again. The OnRangeBarChangeListeners of the other bars are
+     * called as usual if their indices change.
+     * <p>
+     * Call {@link #unbindRangeModel()} when the bar is no longer used, since
+     * the model keeps a reference to it.
+     * 
+     * @param model the shared range
+     * @param mapping how the model's indices map onto this bar's ticks; null
+     *            to spread the whole model over the ticks, which is the
+     *            identity when both have the same tick count
+     */
+    public void bindRangeModel(RangeModel model, IndexMapping mapping) {
+
+        unbindRangeModel();
+
+        mRangeModel = model;
+        mIndexMapping = (mapping != null) ? mapping : new IndexMapping(0, model.getTickCount() - 1);
+        mRangeModel.addOnRangeChangeListener(mRangeModelListener);
+
+        applyRangeModel();
+    }
+
+    /**
+     * Unbinds this RangeBar from its RangeModel, keeping its current indices.
+     * Does nothing if it is not bound.
+     */
+    public void unbindRangeModel() {
+
+        if (mRangeModel != null) {
+            mRangeModel.removeOnRangeChangeListener(mRangeModelListener);
+            mRangeModel = null;
+            mIndexMapping = null;
+        }
+    }
+
+    /**
+     * Gets the RangeModel this RangeBar is bound to.
+     * 
+     * @return the model, or null if not bound
+     */
+    public RangeModel getRangeModel() {
+        return mRangeModel;
+    }
+
+    /**
+     * Adds a listener to be notified when the user starts and stops dragging
+     * a thumb.
+     * 
+     * @param listener the listener to add; ignored if null or already added
+     */
+    public void addOnRangeBarDragListener(RangeBar.OnRangeBarDragListener listener) {
+        mDragListeners.add(listener);
+    }
 
-                if (mListener != null)
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
+    /**
+     * Removes a listener added with
+     * {@link #addOnRangeBarDragListener(OnRangeBarDragListener)}.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeOnRangeBarDragListener(RangeBar.OnRangeBarDragListener listener) {
+        mDragListeners.remove(listener);
+    }
+
+    /**
+     * Sets a listener to receive the continuous positions of the thumbs while
+     * one is dragged, e.g. to scrub a video or preview a chart between ticks.
+     * It is called at most once per frame while the thumb moves, with the
+     * positions as fractions of the bar, and once more when the thumb is
+     * released, with the positions after snapping to the ticks. The same
+     * {@link PreviewEvent} is passed every time, so the stream does not
+     * allocate.
+     * 
+     * @param listener the listener, or null to stop the previews
+     */
+    public void setOnRangeBarPreviewListener(RangeBar.OnRangeBarPreviewListener listener) {
+
+        mPreviewListener = listener;
+
+        if (listener == null) {
+            cancelPreview();
+        } else if (mPreviewFrameCallback == null && mPreviewRunnable == null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                mPreviewFrameCallback = new RangeBar.PreviewFrameCallback(this);
+            } else {
+                mPreviewRunnable = new Runnable() {
+                    @Override
+                    public void run() {
+                        onPreviewFrame();
+                    }
+                };
             }
+        }
+    }
 
-            createBar();
-            createThumbs();
+    /**
+     * Sets the number of ticks in the RangeBar.
+     * 
+     * @param tickCount Integer specifying the number of ticks.
+     */
+    public void setTickCount(int tickCount) {
+
+        if (RangeBarController.isValidTickCount(tickCount)) {
+
+            // Changing the tick count only moves the ticks and thumbs, so the
+            // existing components are kept.
+            if (mRangeModel != null) {
+                // The bound model, not the reset to the full range, decides
+                // where the thumbs go.
+                mApplyingRangeModel = true;
+                mController.setTickCount(tickCount);
+                mApplyingRangeModel = false;
+                applyRangeModel();
+            } else {
+                mController.setTickCount(tickCount);
+            }
+            invalidate();
         }
         else {
             Log.e(TAG, "tickCount less than 2; invalid tickCount.");
@@ -445,6 +1133,21 @@ public class RangeBar extends View {
         createThumbs();
     }
 
+    /**
+     * Sets the config the thumb images are decoded with. RGB_565 halves the
+     * memory used by the thumbs, which adds up when many RangeBars are shown
+     * on a low-RAM device, but has no alpha channel: only use it with opaque
+     * thumb images or ones whose transparent corners match a black
+     * background. The images are always decoded at their on-screen size.
+     * 
+     * @param config the config, e.g. Bitmap.Config.RGB_565; null for the
+     *            default ARGB_8888
+     */
+    public void setThumbBitmapConfig(Bitmap.Config config) {
+        mThumbBitmapConfig = config;
+        createThumbs();
+    }
+
     /**
      * If this is set, the thumb images will be replaced with a circle. The
      * normal image will be of the specified color.
@@ -480,36 +1183,70 @@ public class RangeBar extends View {
      */
     public void setThumbIndices(int leftThumbIndex, int rightThumbIndex)
     {
-        if (indexOutOfRange(leftThumbIndex, rightThumbIndex)) {
+        if (mController.indexOutOfRange(leftThumbIndex, rightThumbIndex)) {
         	
             Log.e(TAG, "A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
             throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
         
         } else {
-        	
-            if (mFirstSetTickCount == true)
-                mFirstSetTickCount = false;
-
-            mLeftIndex = leftThumbIndex;
-            mRightIndex = rightThumbIndex;
-            createThumbs();
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-            }
+            mController.setThumbIndices(leftThumbIndex, rightThumbIndex);
         }
 
         invalidate();
         requestLayout();
     }
 
+    /**
+     * Sets the tick count from any thread. Like
+     * {@link #postThumbIndices(int, int)} the change is applied on the UI
+     * thread at the next frame, merged with the other updates posted before
+     * it.
+     * 
+     * @param tickCount Integer specifying the number of ticks.
+     * @throws IllegalArgumentException if tickCount is less than 2
+     */
+    public void postTickCount(int tickCount) {
+
+        if (!RangeBarController.isValidTickCount(tickCount)) {
+            Log.e(TAG, "tickCount less than 2; invalid tickCount.");
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+        mUpdater.post(tickCount, -1, -1);
+    }
+
+    /**
+     * Sets the thumb indices from any thread, e.g. as values arrive from a
+     * background sync. Rather than being applied right away, the indices are
+     * stored in a pending update that the UI thread applies at the start of
+     * the next frame. All the updates posted before then are merged, the
+     * latest tick count and latest indices winning, and applied with a single
+     * invalidation and a single call to the listeners.
+     * <p>
+     * Within an update the tick count is applied before the indices, whatever
+     * order they were posted in. Indices that are out of range for the tick
+     * count at that point are logged and ignored.
+     * 
+     * @param leftThumbIndex Integer specifying the index of the left thumb
+     * @param rightThumbIndex Integer specifying the index of the right thumb
+     * @throws IllegalArgumentException if either index is negative
+     */
+    public void postThumbIndices(int leftThumbIndex, int rightThumbIndex) {
+
+        if (leftThumbIndex < 0 || rightThumbIndex < 0) {
+            Log.e(TAG, "A thumb index is negative.");
+            throw new IllegalArgumentException("A thumb index is negative.");
+        }
+        mUpdater.post(0, leftThumbIndex, rightThumbIndex);
+    }
+
     /**
      * Gets the index of the left-most thumb.
      * 
      * @return the 0-based index of the left thumb
      */
     public int getLeftIndex() {
-        return mLeftIndex;
+        return mController.getLeftIndex();
     }
 
     /**
@@ -518,7 +1255,74 @@ public class RangeBar extends View {
      * @return the 0-based index of the right thumb
      */
     public int getRightIndex() {
-        return mRightIndex;
+        return mController.getRightIndex();
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Whether the thumbs, bar and connecting line are drawn live, i.e. they
+     * exist and no snapshot is shown in their place.
+     */
+    boolean isDrawingComponents() {
+        return mThumb != null && !mShowingSnapshot;
+    }
+
+    /**
+     * Applies an update posted with {@link #postTickCount(int)} or
+     * {@link #postThumbIndices(int, int)}. Called on the UI thread.
+     * 
+     * @param tickCount the new tick count, or 0 to keep it
+     * @param leftThumbIndex the new left index, or -1 to keep both indices
+     * @param rightThumbIndex the new right index
+     */
+    void applyUpdate(int tickCount, int leftThumbIndex, int rightThumbIndex) {
+
+        mSuppressInvalidate = true;
+        mCoalescingChanges = true;
+        mChangeCoalesced = false;
+        try {
+            if (tickCount > 0) {
+                setTickCount(tickCount);
+            }
+            if (leftThumbIndex >= 0) {
+                if (mController.indexOutOfRange(leftThumbIndex, rightThumbIndex)) {
+                    Log.e(TAG, "A posted thumb index is out of bounds; ignored.");
+                } else {
+                    mController.setThumbIndices(leftThumbIndex, rightThumbIndex);
+                }
+            }
+        } finally {
+            mSuppressInvalidate = false;
+            mCoalescingChanges = false;
+        }
+
+        if (mChangeCoalesced) {
+            mIndexChangeListener.onIndexChange(mController.getLeftIndex(), mController.getRightIndex());
+        }
+        invalidate();
+    }
+
+    /**
+     * Drops the thumbs, bar and connecting line, and with them the thumb
+     * images and Paints, unless a thumb is being dragged. They are created
+     * again by the next onDraw.
+     */
+    void releaseResources() {
+
+        if (mThumb == null || mController.isDragging()) {
+            return;
+        }
+
+        mReleased = true;
+        mThumb = null;
+        mBar = null;
+        mConnectingLine = null;
+        mCanvas.clear();
+
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_RESOURCE_RELEASES);
+        }
     }
 
     // Private Methods /////////////////////////////////////////////////////////
@@ -541,17 +1345,11 @@ public class RangeBar extends View {
             // attributes.
             final Integer tickCount = ta.getInteger(R.styleable.RangeBar_tickCount, DEFAULT_TICK_COUNT);
 
-            if (isValidTickCount(tickCount)) {
+            if (RangeBarController.isValidTickCount(tickCount)) {
 
                 // Similar functions performed above in setTickCount; make sure
                 // you know how they interact
-                mTickCount = tickCount;
-                mLeftIndex = 0;
-                mRightIndex = mTickCount - 1;
-
-                if (mListener != null) {
-                    mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-                }
+                mController.setTickCount(tickCount);
 
             } else {
 
@@ -573,6 +1371,11 @@ public class RangeBar extends View {
             mThumbColorNormal = ta.getColor(R.styleable.RangeBar_thumbColorNormal, DEFAULT_THUMB_COLOR_NORMAL);
             mThumbColorPressed = ta.getColor(R.styleable.RangeBar_thumbColorPressed,
                                              DEFAULT_THUMB_COLOR_PRESSED);
+            if (ta.getInt(R.styleable.RangeBar_thumbBitmapConfig, THUMB_BITMAP_CONFIG_ARGB_8888) == THUMB_BITMAP_CONFIG_RGB_565) {
+                mThumbBitmapConfig = Bitmap.Config.RGB_565;
+            }
+            mStaticSnapshot = ta.getBoolean(R.styleable.RangeBar_staticSnapshot, false);
+            mShowingSnapshot = mStaticSnapshot;
 
         } finally {
 
@@ -588,14 +1391,22 @@ public class RangeBar extends View {
      */
     private void createBar() {
 
+        // Created when the snapshot is replaced or the released components are
+        // created again.
+        if (mShowingSnapshot || mReleased) {
+            invalidate();
+            return;
+        }
+
         mBar = new Bar(getContext(),
-                       getMarginLeft(),
-                       getYPos(),
-                       getBarLength(),
-                       mTickCount,
                        mTickHeightDP,
                        mBarWeight,
                        mBarColor);
+        mBar.apply(mPainter, mCanvas);
+
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_BAR_REBUILDS);
+        }
         invalidate();
     }
 
@@ -606,48 +1417,155 @@ public class RangeBar extends View {
      */
     private void createConnectingLine() {
 
+        if (mShowingSnapshot || mReleased) {
+            invalidate();
+            return;
+        }
+
         mConnectingLine = new ConnectingLine(getContext(),
-                                             getYPos(),
                                              mConnectingLineWeight,
                                              mConnectingLineColor);
+        mConnectingLine.apply(mCanvas);
+
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_CONNECTING_LINE_REBUILDS);
+        }
         invalidate();
     }
 
     /**
-     * Creates two new Thumbs.
+     * Creates a new Thumb, used to draw both thumbs.
      * 
      * @param none
      */
     private void createThumbs() {
 
-        Context ctx = getContext();
-        float yPos = getYPos();
-
-        mLeftThumb = new Thumb(ctx,
-                               yPos,
-                               mThumbColorNormal,
-                               mThumbColorPressed,
-                               mThumbRadiusDP,
-                               mThumbImageNormal,
-                               mThumbImagePressed);
-        mRightThumb = new Thumb(ctx,
-                                yPos,
-                                mThumbColorNormal,
-                                mThumbColorPressed,
-                                mThumbRadiusDP,
-                                mThumbImageNormal,
-                                mThumbImagePressed);
-
-        float marginLeft = getMarginLeft();
-        float barLength = getBarLength();
+        if (mShowingSnapshot) {
+            layoutSnapshot();
+        }
+        if (mShowingSnapshot || mReleased) {
+            invalidate();
+            return;
+        }
 
-        // Initialize thumbs to the desired indices
-        mLeftThumb.setX(marginLeft + (mLeftIndex / (float) (mTickCount - 1)) * barLength);
-        mRightThumb.setX(marginLeft + (mRightIndex / (float) (mTickCount - 1)) * barLength);
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.CREATE_THUMB);
+
+        mThumb = new Thumb(getContext(),
+                           mThumbColorNormal,
+                           mThumbColorPressed,
+                           mThumbRadiusDP,
+                           mThumbImageNormal,
+                           mThumbImagePressed,
+                           mThumbBitmapConfig,
+                           mThumb);
+
+        RangeBarTrace.end(trace, RangeBarTrace.CREATE_THUMB);
+
+        mThumb.apply(mPainter, mCanvas);
+        mController.setThumbTargetRadius(mThumb.getTargetRadius());
+
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_THUMB_REBUILDS);
+        }
+
+        // The size of the thumb determines the margins of the bar, so lay out
+        // the bar and the thumbs at the desired indices again.
+        mController.setLayout(getMarginLeft(), getYPos(), getBarLength());
 
         invalidate();
     }
 
+    /**
+     * Replaces the snapshot or the released components with the thumbs, bar
+     * and connecting line, laid out at the current indices.
+     */
+    private void createComponents() {
+
+        mShowingSnapshot = false;
+        mReleased = false;
+        mDensity = getResources().getDisplayMetrics().density;
+
+        // Creating the thumbs lays out the controller.
+        createThumbs();
+        createBar();
+        createConnectingLine();
+    }
+
+    /**
+     * Drops the thumbs, bar and connecting line to draw the snapshot of the
+     * current state instead, unless a thumb is being dragged.
+     */
+    private void showSnapshot() {
+
+        if (mShowingSnapshot || mController.isDragging()) {
+            return;
+        }
+
+        mShowingSnapshot = true;
+        mThumb = null;
+        mBar = null;
+        mConnectingLine = null;
+        mCanvas.clear();
+        layoutSnapshot();
+        invalidate();
+    }
+
+    /**
+     * Lays out the controller while the snapshot is shown, with the margins
+     * and touchable area the thumbs will have, so that pressing a thumb can be
+     * detected without creating them.
+     */
+    private void layoutSnapshot() {
+
+        // Laid out by onSizeChanged.
+        if (getWidth() == 0) {
+            return;
+        }
+
+        final Resources res = getResources();
+        final float marginLeft = Thumb.getHalfWidth(res, mThumbImageNormal);
+
+        mController.setThumbTargetRadius(Thumb.getTargetRadius(res, mThumbRadiusDP));
+        mController.setLayout(marginLeft, getYPos(), getWidth() - 2 * marginLeft);
+    }
+
+    /**
+     * Draws the cached snapshot of the current state, or requests it if it
+     * has not been rendered yet.
+     */
+    private void drawSnapshot(Canvas canvas) {
+
+        if (getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+
+        final RangeBarSnapshots.Key key = mSnapshotKey;
+        key.mTickHeightDP = mTickHeightDP;
+        key.mBarWeight = mBarWeight;
+        key.mBarColor = mBarColor;
+        key.mConnectingLineWeight = mConnectingLineWeight;
+        key.mConnectingLineColor = mConnectingLineColor;
+        key.mThumbImageNormal = mThumbImageNormal;
+        key.mThumbImagePressed = mThumbImagePressed;
+        key.mThumbRadiusDP = mThumbRadiusDP;
+        key.mThumbColorNormal = mThumbColorNormal;
+        key.mThumbColorPressed = mThumbColorPressed;
+        key.mThumbBitmapConfig = mThumbBitmapConfig;
+        key.mDensityDpi = getResources().getDisplayMetrics().densityDpi;
+        key.mWidth = getWidth();
+        key.mHeight = getHeight();
+        key.mTickCount = mController.getTickCount();
+        key.mLeftIndex = mController.getLeftIndex();
+        key.mRightIndex = mController.getRightIndex();
+
+        final Bitmap snapshot = RangeBarSnapshots.get(key);
+        if (snapshot != null) {
+            canvas.drawBitmap(snapshot, 0, 0, null);
+        } else {
+            RangeBarSnapshots.request(getContext(), key, this);
+        }
+    }
+
     /**
      * Get marginLeft in each of the public attribute methods.
      * 
@@ -655,7 +1573,7 @@ public class RangeBar extends View {
      * @return float marginLeft
      */
     private float getMarginLeft() {
-        return ((mLeftThumb != null) ? mLeftThumb.getHalfWidth() : 0);
+        return ((mThumb != null) ? mThumb.getHalfWidth() : 0);
     }
 
     /**
@@ -679,173 +1597,349 @@ public class RangeBar extends View {
     }
 
     /**
-     * Returns if either index is outside the range of the tickCount.
-     * 
-     * @param leftThumbIndex Integer specifying the left thumb index.
-     * @param rightThumbIndex Integer specifying the right thumb index.
-     * @return boolean If the index is out of range.
+     * Moves the thumbs to the range of the bound model. Only the thumbs move,
+     * so a redraw is enough.
      */
-    private boolean indexOutOfRange(int leftThumbIndex, int rightThumbIndex) {
-        return (leftThumbIndex < 0 || leftThumbIndex >= mTickCount
-                || rightThumbIndex < 0
-                || rightThumbIndex >= mTickCount);
+    private void applyRangeModel() {
+
+        final int tickCount = mController.getTickCount();
+        final int leftIndex = mIndexMapping.toTickIndex(mRangeModel.getLeftIndex(), tickCount);
+        final int rightIndex = mIndexMapping.toTickIndex(mRangeModel.getRightIndex(), tickCount);
+
+        if (leftIndex != mController.getLeftIndex() || rightIndex != mController.getRightIndex()) {
+
+            mApplyingRangeModel = true;
+            mController.setThumbIndices(leftIndex, rightIndex);
+            mApplyingRangeModel = false;
+
+            invalidate();
+        }
     }
 
     /**
-     * If is invalid tickCount, rejects. TickCount must be greater than 1
+     * Writes the indices of this bar to the bound model. An index that did not
+     * change on this bar keeps its exact model value, so that a thumb clamped
+     * to the edge of a zoomed bar does not drag the model along.
      * 
-     * @param tickCount Integer
-     * @return boolean: whether tickCount > 1
+     * @param leftThumbIndex the new left index of this bar
+     * @param rightThumbIndex the new right index of this bar
      */
-    private boolean isValidTickCount(int tickCount) {
-        return (tickCount > 1);
+    private void pushToRangeModel(int leftThumbIndex, int rightThumbIndex) {
+
+        final int tickCount = mController.getTickCount();
+
+        int leftIndex = mRangeModel.getLeftIndex();
+        if (leftThumbIndex != mIndexMapping.toTickIndex(leftIndex, tickCount)) {
+            leftIndex = mIndexMapping.toModelIndex(leftThumbIndex, tickCount);
+        }
+
+        int rightIndex = mRangeModel.getRightIndex();
+        if (rightThumbIndex != mIndexMapping.toTickIndex(rightIndex, tickCount)) {
+            rightIndex = mIndexMapping.toModelIndex(rightThumbIndex, tickCount);
+        }
+
+        // A mapping may extend past the ends of the model.
+        final int lastIndex = mRangeModel.getTickCount() - 1;
+        leftIndex = Math.max(0, Math.min(leftIndex, lastIndex));
+        rightIndex = Math.max(0, Math.min(rightIndex, lastIndex));
+
+        mRangeModel.setIndices(leftIndex, rightIndex, mRangeModelListener);
     }
 
     /**
-     * Handles a {@link MotionEvent#ACTION_DOWN} event.
+     * Adds a touch event and its historical samples to the recording.
      * 
-     * @param x the x-coordinate of the down action
-     * @param y the y-coordinate of the down action
+     * @param event the event passed to onTouchEvent
      */
-    private void onActionDown(float x, float y) {
+    private void recordGesture(MotionEvent event) {
 
-        if (!mLeftThumb.isPressed() && mLeftThumb.isInTargetZone(x, y)) {
+        mGestureRecording.addEvent(event.getAction() & MotionEvent.ACTION_MASK);
 
-            pressThumb(mLeftThumb);
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            mGestureRecording.addSample(event.getHistoricalEventTime(i),
+                                        event.getHistoricalX(i),
+                                        event.getHistoricalY(i));
+        }
+        mGestureRecording.addSample(event.getEventTime(), event.getX(), event.getY());
+    }
 
-        } else if (!mLeftThumb.isPressed() && mRightThumb.isInTargetZone(x, y)) {
+    /**
+     * Calls the preview listener at the next frame, unless it is already
+     * scheduled.
+     */
+    private void schedulePreview() {
+
+        if (mPreviewPending) {
+            return;
+        }
+        mPreviewPending = true;
+
+        if (mPreviewFrameCallback != null) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mPreviewFrameCallback);
+        } else {
+            post(mPreviewRunnable);
+        }
+    }
 
-            pressThumb(mRightThumb);
+    private void cancelPreview() {
+
+        if (!mPreviewPending) {
+            return;
+        }
+        mPreviewPending = false;
+
+        if (mPreviewFrameCallback != null) {
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) mPreviewFrameCallback);
+        } else {
+            removeCallbacks(mPreviewRunnable);
+        }
+    }
+
+    private void onPreviewFrame() {
+
+        mPreviewPending = false;
+
+        if (mPreviewListener != null && mController.isDragging()) {
+            dispatchPreview(false);
         }
     }
 
     /**
-     * Handles a {@link MotionEvent#ACTION_UP} or 
-     * {@link MotionEvent#ACTION_CANCEL} event.
+     * Fills the preview event with the current thumb positions and calls the
+     * preview listener.
      * 
-     * @param x the x-coordinate of the up action
-     * @param y the y-coordinate of the up action
+     * @param isFinal true for the event sent when the thumb is released
      */
-    private void onActionUp(float x, float y) {
-
-        if (mLeftThumb.isPressed()) {
+    private void dispatchPreview(boolean isFinal) {
 
-            releaseThumb(mLeftThumb);
+        final TickGeometry geometry = mController.getGeometry();
+        final float leftX = geometry.getLeftX();
+        final float length = geometry.getRightX() - leftX;
 
-		} else if (mRightThumb.isPressed()) {
+        final RangeBar.PreviewEvent event = mPreviewEvent;
+        event.mLeftFraction = toFraction(mController.getLeftThumb().getX(), leftX, length);
+        event.mRightFraction = toFraction(mController.getRightThumb().getX(), leftX, length);
+        event.mLeftIndex = mController.getLeftIndex();
+        event.mRightIndex = mController.getRightIndex();
+        event.mFinal = isFinal;
 
-			releaseThumb(mRightThumb);
+        mPreviewListener.onRangeBarPreview(this, event);
+    }
 
-		} else {
+    private static float toFraction(float x, float leftX, float length) {
+        return (length <= 0) ? 0 : Math.max(0f, Math.min(1f, (x - leftX) / length));
+    }
 
-			float leftThumbXDistance = Math.abs(mLeftThumb.getX() - x);
-			float rightThumbXDistance = Math.abs(mRightThumb.getX() - x);
+    /**
+     * Shows a thumb's move. With the SelectionLayers only their translation
+     * and scale change, so nothing is recorded again. Otherwise the part of
+     * the RangeBar the thumb, and the end of the connecting line with it,
+     * moved across is invalidated, which limits what software rendering
+     * redraws.
+     * 
+     * @param fromX the x-coordinate the thumb was drawn at
+     * @param toX the x-coordinate the thumb is drawn at now
+     */
+    private void invalidateThumbRegion(float fromX, float toX) {
 
-			if (leftThumbXDistance < rightThumbXDistance) {
-				mLeftThumb.setX(x);
-				releaseThumb(mLeftThumb);
-			} else {
-				mRightThumb.setX(x);
-				releaseThumb(mRightThumb);
-			}
+        if (mLayersActive) {
+            mSelectionLayers.update();
+            return;
+        }
 
-	        // Get the updated nearest tick marks for each thumb.
-	        final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
-	        final int newRightIndex = mBar.getNearestTickIndex(mRightThumb);
+        if (mThumb == null) {
+            invalidate();
+            return;
+        }
 
-	        // If either of the indices have changed, update and call the listener.
-	        if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
+        // One extra pixel for anti-aliasing.
+        final float halfWidth = mThumb.getMaxHalfWidth() + 1;
 
-	            mLeftIndex = newLeftIndex;
-	            mRightIndex = newRightIndex;
+        super.invalidate((int) (Math.min(fromX, toX) - halfWidth),
+                         0,
+                         (int) Math.ceil(Math.max(fromX, toX) + halfWidth),
+                         getHeight());
 
-	            if (mListener != null) {
-	                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-	            }
-	        }
-		}
-	}
+        if (mMetrics != null) {
+            mMetrics.increment(RangeBarMetrics.COUNTER_INVALIDATIONS);
+        }
+    }
 
     /**
-     * Handles a {@link MotionEvent#ACTION_MOVE} event.
-     * 
-     * @param x the x-coordinate of the move event
+     * Creates the SelectionLayers on API 11+; they are shown once the RangeBar
+     * is attached to a hardware-accelerated window.
      */
-    private void onActionMove(float x) {
+    private void initSelectionLayers() {
 
-        // Move the pressed thumb to the new x-position.
-        if (mLeftThumb.isPressed()) {
-            moveThumb(mLeftThumb, x);
-        } else if (mRightThumb.isPressed()) {
-            moveThumb(mRightThumb, x);
+        // A ViewGroup does not draw itself by default.
+        setWillNotDraw(false);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            mSelectionLayers = new SelectionLayers(this, mController, mPainter, mCanvas);
+            mSelectionLayers.setVisible(false);
         }
+    }
+
+    /**
+     * Lays out the SelectionLayers for the current thumbs, keeping the last
+     * size while there are none, and moves them to the thumb positions.
+     */
+    private void syncSelectionLayers() {
 
-        // If the thumbs have switched order, fix the references.
-        if (mLeftThumb.getX() > mRightThumb.getX()) {
-            final Thumb temp = mLeftThumb;
-            mLeftThumb = mRightThumb;
-            mRightThumb = temp;
+        if (mThumb != null) {
+            mSelectionLayers.layout(getWidth(), getHeight(), mThumb.getMaxHalfWidth());
         }
+        mSelectionLayers.update();
+    }
 
-        // Get the updated nearest tick marks for each thumb.
-        final int newLeftIndex = mBar.getNearestTickIndex(mLeftThumb);
-        final int newRightIndex = mBar.getNearestTickIndex(mRightThumb);
+    /**
+     * Feeds the samples of a move event, including the historical ones
+     * batched into it, to the touch predictor.
+     */
+    private void addPredictorSamples(MotionEvent event) {
 
-        // If either of the indices have changed, update and call the listener.
-        if (newLeftIndex != mLeftIndex || newRightIndex != mRightIndex) {
+        final TouchPredictor predictor = mController.getTouchPredictor();
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            predictor.addSample(event.getHistoricalX(i), event.getHistoricalEventTime(i) * 1000000L);
+        }
+        predictor.addSample(event.getX(), event.getEventTime() * 1000000L);
+    }
 
-            mLeftIndex = newLeftIndex;
-            mRightIndex = newRightIndex;
+    /**
+     * Remembers when the first touch event since the last frame that changed
+     * the RangeBar happened, to measure how long it takes to show its effect.
+     * 
+     * @param eventTime the {@link MotionEvent#getEventTime()} of the event
+     */
+    private void markTouchPending(long eventTime) {
 
-            if (mListener != null) {
-                mListener.onIndexChangeListener(this, mLeftIndex, mRightIndex);
-            }
+        if (mMetrics != null && mPendingTouchTime < 0) {
+            mPendingTouchTime = eventTime;
         }
     }
 
     /**
-     * Set the thumb to be in the pressed state and calls invalidate() to redraw
-     * the canvas to reflect the updated state.
+     * Handles a {@link MotionEvent#ACTION_DOWN} event.
      * 
-     * @param thumb the thumb to press
+     * @param x the x-coordinate of the down action
+     * @param y the y-coordinate of the down action
+     * @param eventTime the time of the down action, in uptime milliseconds
      */
-    private void pressThumb(Thumb thumb) {
-        if (mFirstSetTickCount == true)
-            mFirstSetTickCount = false;
-        thumb.press();
-        invalidate();
+    private void onActionDown(float x, float y, long eventTime) {
+
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ACTION_DOWN);
+
+        if (mController.onActionDown(x, y)) {
+            // A tap beside the thumbs only changes the indices, which the
+            // snapshot of the new indices shows as well.
+            if (mShowingSnapshot) {
+                createComponents();
+            }
+            markTouchPending(eventTime);
+            invalidate();
+
+            final Object[] listeners = mDragListeners.getArray();
+            for (int i = 0; i < listeners.length; i++) {
+                ((RangeBar.OnRangeBarDragListener) listeners[i]).onDragStart(this,
+                                                                             mController.getLeftIndex(),
+                                                                             mController.getRightIndex());
+            }
+        }
+
+        RangeBarTrace.end(trace, RangeBarTrace.ACTION_DOWN);
     }
 
     /**
-     * Set the thumb to be in the normal/un-pressed state and calls invalidate()
-     * to redraw the canvas to reflect the updated state.
+     * Handles a {@link MotionEvent#ACTION_UP} or 
+     * {@link MotionEvent#ACTION_CANCEL} event.
      * 
-     * @param thumb the thumb to release
+     * @param x the x-coordinate of the up action
+     * @param y the y-coordinate of the up action
+     * @param eventTime the time of the up action, in uptime milliseconds
      */
-    private void releaseThumb(Thumb thumb) {
+    private void onActionUp(float x, float y, long eventTime) {
+
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ACTION_UP);
 
-        final float nearestTickX = mBar.getNearestTickCoordinate(thumb);
-        thumb.setX(nearestTickX);
-        thumb.release();
+        final boolean wasDragging = mController.isDragging();
+
+        if (wasDragging) {
+            mChangeOrigin = ORIGIN_USER_DRAG;
+            mDragPhase = DRAG_PHASE_END;
+        } else {
+            mChangeOrigin = ORIGIN_USER_TAP;
+        }
+        mController.onActionUp(x, y);
+        mChangeOrigin = ORIGIN_PROGRAMMATIC;
+        mDragPhase = DRAG_PHASE_NONE;
+        markTouchPending(eventTime);
         invalidate();
+
+        if (wasDragging) {
+            if (mPreviewListener != null) {
+                cancelPreview();
+                dispatchPreview(true);
+            }
+
+            mChangeOrigin = ORIGIN_USER_DRAG;
+            mDragPhase = DRAG_PHASE_END;
+            mChangeEventDispatcher.onIndexChange(mController.getLeftIndex(), mController.getRightIndex());
+            mChangeOrigin = ORIGIN_PROGRAMMATIC;
+            mDragPhase = DRAG_PHASE_NONE;
+
+            final Object[] listeners = mDragListeners.getArray();
+            for (int i = 0; i < listeners.length; i++) {
+                ((RangeBar.OnRangeBarDragListener) listeners[i]).onDragEnd(this,
+                                                                           mController.getLeftIndex(),
+                                                                           mController.getRightIndex());
+            }
+        }
+
+        RangeBarTrace.end(trace, RangeBarTrace.ACTION_UP);
     }
 
     /**
-     * Moves the thumb to the given x-coordinate.
+     * Handles a {@link MotionEvent#ACTION_MOVE} event.
      * 
-     * @param thumb the thumb to move
-     * @param x the x-coordinate to move the thumb to
+     * @param x the x-coordinate of the move event
+     * @param eventTime the time of the move event, in uptime milliseconds
      */
-    private void moveThumb(Thumb thumb, float x) {
+    private void onActionMove(float x, long eventTime) {
+
+        final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ACTION_MOVE);
+
+        // Only the pressed thumb moves, and with it the connecting line, so
+        // only the region it moves across is redrawn.
+        final ThumbModel pressed = mController.getLeftThumb().isPressed()
+                ? mController.getLeftThumb()
+                : mController.getRightThumb();
+        final float fromX = pressed.getDrawX();
+
+        // Only a pressed thumb moves, so any change is part of a drag.
+        mChangeOrigin = ORIGIN_USER_DRAG;
+        mDragPhase = DRAG_PHASE_MOVE;
+        boolean moved = mController.onActionMove(x);
+        mChangeOrigin = ORIGIN_PROGRAMMATIC;
+        mDragPhase = DRAG_PHASE_NONE;
+
+        // The indices were set from the real touch above; only the drawn
+        // position is predicted.
+        if (mController.predictMove(eventTime * 1000000L + PREDICTION_HORIZON_NANOS)) {
+            moved = true;
+        }
 
-        // If the user has moved their finger outside the range of the bar,
-        // do not move the thumbs past the edge.
-        if (x < mBar.getLeftX() || x > mBar.getRightX()) {
-            // Do nothing.
-        } else {
-            thumb.setX(x);
-            invalidate();
+        if (moved) {
+            markTouchPending(eventTime);
+            invalidateThumbRegion(fromX, pressed.getDrawX());
+
+            if (mPreviewListener != null) {
+                schedulePreview();
+            }
         }
+
+        RangeBarTrace.end(trace, RangeBarTrace.ACTION_MOVE);
     }
 
     // Inner Classes ///////////////////////////////////////////////////////////
@@ -859,4 +1953,117 @@ public class RangeBar extends View {
 
         public void onIndexChangeListener(RangeBar rangeBar, int leftThumbIndex, int rightThumbIndex);
     }
+
+    /**
+     * A callback that notifies clients when the RangeBar has changed, and why.
+     * Like {@link OnRangeBarChangeListener} it is only called when either
+     * thumb's index has changed, except at the end of a drag.
+     */
+    public static interface OnRangeBarChangeEventListener {
+
+        /**
+         * @param origin what caused the change, e.g. {@link #ORIGIN_USER_DRAG}
+         * @param dragPhase {@link #DRAG_PHASE_MOVE} during a drag,
+         *            {@link #DRAG_PHASE_END} when it ends, or
+         *            {@link #DRAG_PHASE_NONE}
+         */
+        public void onRangeBarChange(RangeBar rangeBar,
+                                     int leftThumbIndex,
+                                     int rightThumbIndex,
+                                     int origin,
+                                     int dragPhase);
+    }
+
+    /**
+     * A callback that receives the continuous positions of the thumbs while
+     * one is dragged; see
+     * {@link RangeBar#setOnRangeBarPreviewListener(OnRangeBarPreviewListener)}.
+     */
+    public static interface OnRangeBarPreviewListener {
+
+        /**
+         * @param event the positions of the thumbs; reused for the next call,
+         *            so copy out any values that are needed later
+         */
+        public void onRangeBarPreview(RangeBar rangeBar, RangeBar.PreviewEvent event);
+    }
+
+    /**
+     * The positions of both thumbs at one frame of a drag. The fractions are
+     * the distances of the thumbs from the left end of the bar, from 0 at the
+     * first tick to 1 at the last, before snapping unless the event is final.
+     */
+    public static class PreviewEvent {
+
+        float mLeftFraction;
+        float mRightFraction;
+        int mLeftIndex;
+        int mRightIndex;
+        boolean mFinal;
+
+        PreviewEvent() {
+        }
+
+        public float getLeftFraction() {
+            return mLeftFraction;
+        }
+
+        public float getRightFraction() {
+            return mRightFraction;
+        }
+
+        /**
+         * Gets the index of the tick nearest the left thumb, which is where it
+         * would snap to.
+         */
+        public int getLeftIndex() {
+            return mLeftIndex;
+        }
+
+        /**
+         * Gets the index of the tick nearest the right thumb, which is where
+         * it would snap to.
+         */
+        public int getRightIndex() {
+            return mRightIndex;
+        }
+
+        /**
+         * Returns whether this is the last event of the drag, sent once the
+         * thumb has been released and snapped to a tick.
+         */
+        public boolean isFinal() {
+            return mFinal;
+        }
+    }
+
+    /**
+     * Calls the preview listener on each frame it is posted for. Only loaded
+     * on API 16+, where Choreographer exists.
+     */
+    private static class PreviewFrameCallback implements Choreographer.FrameCallback {
+
+        private final RangeBar mRangeBar;
+
+        PreviewFrameCallback(RangeBar rangeBar) {
+            mRangeBar = rangeBar;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mRangeBar.onPreviewFrame();
+        }
+    }
+
+    /**
+     * A callback that notifies clients when the user presses a thumb and when
+     * they release it. Taps on the bar that move a thumb without pressing it
+     * first are not reported.
+     */
+    public static interface OnRangeBarDragListener {
+
+        public void onDragStart(RangeBar rangeBar, int leftThumbIndex, int rightThumbIndex);
+
+        public void onDragEnd(RangeBar rangeBar, int leftThumbIndex, int rightThumbIndex);
+    }
 }
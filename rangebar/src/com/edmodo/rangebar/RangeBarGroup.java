@@ -0,0 +1,487 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.edmodo.rangebar.core.RangeBarBatchRenderer;
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+
+/**
+ * A single view showing a column of ranges, one RangeBar-like row per range,
+ * for tables where one {@link RangeBar} per row would be too many views. The
+ * ranges are held in primitive arrays and drawn by a
+ * {@link RangeBarBatchRenderer} with one set of thumb, bar and connecting line
+ * components, and the touch events of all rows go through one
+ * {@link RangeBarController} that is moved to the row under the finger. The
+ * number of objects, and so the memory used, stays the same however many rows
+ * there are, and only the rows inside the clip bounds are drawn, so a tall
+ * group can be put in a ScrollView.
+ * <p>
+ * All rows share the style set with the RangeBar attributes (tickHeight,
+ * barColor, thumbImageNormal, ...) plus rowHeight.
+ */
+public class RangeBarGroup extends View {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private static final String TAG = "RangeBarGroup";
+
+    private static final float DEFAULT_ROW_HEIGHT_DP = 48;
+
+    // Style of every row; see the RangeBar attributes.
+    private float mTickHeightDP = RangeBar.DEFAULT_TICK_HEIGHT_DP;
+    private float mBarWeight = RangeBar.DEFAULT_BAR_WEIGHT_PX;
+    private int mBarColor = RangeBar.DEFAULT_BAR_COLOR;
+    private float mConnectingLineWeight = RangeBar.DEFAULT_CONNECTING_LINE_WEIGHT_PX;
+    private int mConnectingLineColor = RangeBar.DEFAULT_CONNECTING_LINE_COLOR;
+    private int mThumbImageNormal = RangeBar.DEFAULT_THUMB_IMAGE_NORMAL;
+    private int mThumbImagePressed = RangeBar.DEFAULT_THUMB_IMAGE_PRESSED;
+    private float mThumbRadiusDP = RangeBar.DEFAULT_THUMB_RADIUS_DP;
+    private int mThumbColorNormal = RangeBar.DEFAULT_THUMB_COLOR_NORMAL;
+    private int mThumbColorPressed = RangeBar.DEFAULT_THUMB_COLOR_PRESSED;
+    private Bitmap.Config mThumbBitmapConfig;
+
+    private int mRowHeight;
+
+    private int mDefaultWidth = 500;
+
+    // Screen density the components were last created for.
+    private float mDensity;
+
+    // Shared by all rows.
+    private Thumb mThumb;
+    private Bar mBar;
+    private ConnectingLine mConnectingLine;
+
+    private final RangeBarPainter mPainter = new RangeBarPainter();
+    private final AndroidCanvas mCanvas = new AndroidCanvas();
+    private final RangeBarBatchRenderer mRenderer = new RangeBarBatchRenderer(mPainter);
+
+    // The ranges, owned by the client; null until setRanges() is called.
+    private int[] mTickCounts;
+    private int[] mLeftIndices;
+    private int[] mRightIndices;
+
+    // The row being touched, which mController holds and draws in the
+    // coordinates of the row, like the renderer; -1 if none.
+    private int mActiveRow = -1;
+
+    private final RangeBarController.OnIndexChangeListener mIndexChangeListener = new RangeBarController.OnIndexChangeListener() {
+        @Override
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+
+            // Moving the controller to a row is not a change.
+            if (mActiveRow < 0) {
+                return;
+            }
+
+            mLeftIndices[mActiveRow] = leftThumbIndex;
+            mRightIndices[mActiveRow] = rightThumbIndex;
+
+            if (mListener != null) {
+                mListener.onIndexChangeListener(RangeBarGroup.this, mActiveRow, leftThumbIndex, rightThumbIndex);
+            }
+        }
+    };
+
+    private final RangeBarController mController = new RangeBarController(2, mIndexChangeListener);
+
+    private RangeBarGroup.OnRangeBarGroupChangeListener mListener;
+
+    private final Rect mClipBounds = new Rect();
+
+    // Constructors ////////////////////////////////////////////////////////////
+
+    public RangeBarGroup(Context context) {
+        super(context);
+        rangeBarGroupInit(context, null);
+    }
+
+    public RangeBarGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        rangeBarGroupInit(context, attrs);
+    }
+
+    public RangeBarGroup(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        rangeBarGroupInit(context, attrs);
+    }
+
+    // View Methods ////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        final int measureWidthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int measureHeightMode = MeasureSpec.getMode(heightMeasureSpec);
+        final int measureWidth = MeasureSpec.getSize(widthMeasureSpec);
+        final int measureHeight = MeasureSpec.getSize(heightMeasureSpec);
+
+        // As wide as possible, like a RangeBar, and as tall as the rows.
+        final int width = (measureWidthMode == MeasureSpec.UNSPECIFIED) ? mDefaultWidth : measureWidth;
+
+        final int contentHeight = getRowCount() * mRowHeight;
+        final int height;
+        if (measureHeightMode == MeasureSpec.EXACTLY) {
+            height = measureHeight;
+        } else if (measureHeightMode == MeasureSpec.AT_MOST) {
+            height = Math.min(contentHeight, measureHeight);
+        } else {
+            height = contentHeight;
+        }
+
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        final float density = getResources().getDisplayMetrics().density;
+
+        if (mThumb == null || density != mDensity) {
+
+            mDensity = density;
+
+            mThumb = new Thumb(getContext(),
+                               mThumbColorNormal,
+                               mThumbColorPressed,
+                               mThumbRadiusDP,
+                               mThumbImageNormal,
+                               mThumbImagePressed,
+                               mThumbBitmapConfig,
+                               mThumb);
+            mThumb.apply(mPainter, mCanvas);
+            mController.setThumbTargetRadius(mThumb.getTargetRadius());
+
+            mBar = new Bar(getContext(), mTickHeightDP, mBarWeight, mBarColor);
+            mBar.apply(mPainter, mCanvas);
+
+            mConnectingLine = new ConnectingLine(getContext(), mConnectingLineWeight, mConnectingLineColor);
+            mConnectingLine.apply(mCanvas);
+        }
+
+        final float marginLeft = mThumb.getHalfWidth();
+        mRenderer.setLayout(marginLeft, w - 2 * marginLeft, mRowHeight);
+
+        if (mActiveRow >= 0) {
+            mController.setLayout(marginLeft, mRenderer.getBarY(), mRenderer.getBarLength());
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+
+        super.onDraw(canvas);
+
+        if (mTickCounts == null || mThumb == null) {
+            return;
+        }
+
+        // Only draw the rows that can be seen.
+        canvas.getClipBounds(mClipBounds);
+        final int startRow = Math.max(0, mRenderer.getRowAt(mClipBounds.top));
+        final int endRow = Math.min(getRowCount(), mRenderer.getRowAt(mClipBounds.bottom) + 1);
+
+        mCanvas.setCanvas(canvas);
+
+        if (mActiveRow >= startRow && mActiveRow < endRow) {
+            mRenderer.draw(mCanvas, mTickCounts, mLeftIndices, mRightIndices, startRow, mActiveRow);
+            mCanvas.save();
+            mCanvas.translate(0, mRenderer.getRowTop(mActiveRow));
+            mPainter.draw(mCanvas, mController);
+            mCanvas.restore();
+            mRenderer.draw(mCanvas, mTickCounts, mLeftIndices, mRightIndices, mActiveRow + 1, endRow);
+        } else {
+            mRenderer.draw(mCanvas, mTickCounts, mLeftIndices, mRightIndices, startRow, endRow);
+        }
+
+        mCanvas.setCanvas(null);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+
+        // If this View is not enabled, don't allow for touch interactions.
+        if (!isEnabled() || mTickCounts == null || mThumb == null) {
+            return false;
+        }
+
+        final int action = event.getAction();
+
+        if (action == MotionEvent.ACTION_DOWN) {
+
+            final int row = mRenderer.getRowAt(event.getY());
+            if (row < 0 || row >= getRowCount()) {
+                return false;
+            }
+            activateRow(row);
+            if (mController.onActionDown(event.getX(), event.getY() - mRenderer.getRowTop(row))) {
+                invalidateRow(row);
+            }
+            return true;
+        }
+
+        // The rest of the gesture goes to the row it started on.
+        if (mActiveRow < 0) {
+            return false;
+        }
+
+        switch (action) {
+
+            case MotionEvent.ACTION_MOVE:
+                if (mController.onActionMove(event.getX())) {
+                    invalidateRow(mActiveRow);
+                }
+                // Only keep the parent from scrolling while a thumb is
+                // dragged, so that a group in a ScrollView can still scroll.
+                if (mController.isDragging()) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                return true;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                getParent().requestDisallowInterceptTouchEvent(false);
+
+                // A cancelled tap, e.g. because the parent started scrolling,
+                // must not move a thumb.
+                if (action == MotionEvent.ACTION_UP || mController.isDragging()) {
+                    mController.onActionUp(event.getX(), event.getY() - mRenderer.getRowTop(mActiveRow));
+                }
+                invalidateRow(mActiveRow);
+                mActiveRow = -1;
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the ranges to show, one row per range. The arrays are not copied:
+     * the group writes the new indices into them when a thumb is moved, and
+     * changes made by the client are shown after {@link #invalidate()}.
+     * 
+     * @param tickCounts the number of ticks of each row; each greater than 1
+     * @param leftIndices the index of the left thumb of each row
+     * @param rightIndices the index of the right thumb of each row
+     * @throws IllegalArgumentException if the arrays differ in length or a
+     *             tick count or index is invalid
+     */
+    public void setRanges(int[] tickCounts, int[] leftIndices, int[] rightIndices) {
+
+        if (tickCounts.length != leftIndices.length || tickCounts.length != rightIndices.length) {
+            Log.e(TAG, "The tick count and index arrays must have the same length.");
+            throw new IllegalArgumentException("The tick count and index arrays must have the same length.");
+        }
+
+        for (int row = 0; row < tickCounts.length; row++) {
+            if (!RangeBarController.isValidTickCount(tickCounts[row])) {
+                Log.e(TAG, "tickCount less than 2; invalid tickCount.");
+                throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+            }
+            if (isIndexOutOfRange(leftIndices[row], tickCounts[row])
+                    || isIndexOutOfRange(rightIndices[row], tickCounts[row])) {
+                Log.e(TAG, "A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+                throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+            }
+        }
+
+        // The rest of a gesture on the old ranges is ignored, so release a
+        // thumb it left pressed; otherwise the next touch could not press one.
+        if (mController.isDragging()) {
+            mController.getLeftThumb().release();
+            mController.getRightThumb().release();
+            if (getParent() != null) {
+                getParent().requestDisallowInterceptTouchEvent(false);
+            }
+        }
+
+        mTickCounts = tickCounts;
+        mLeftIndices = leftIndices;
+        mRightIndices = rightIndices;
+        mActiveRow = -1;
+
+        requestLayout();
+        invalidate();
+    }
+
+    public int getRowCount() {
+        return (mTickCounts != null) ? mTickCounts.length : 0;
+    }
+
+    /**
+     * Sets the height of every row.
+     * 
+     * @param rowHeight the height in pixels
+     */
+    public void setRowHeight(int rowHeight) {
+
+        mRowHeight = rowHeight;
+        mRenderer.setLayout(mRenderer.getMarginLeft(), mRenderer.getBarLength(), rowHeight);
+        requestLayout();
+        invalidate();
+    }
+
+    public int getRowHeight() {
+        return mRowHeight;
+    }
+
+    /**
+     * Moves the thumbs of a row.
+     * 
+     * @param row the index of the row
+     * @param leftThumbIndex the index of the left thumb
+     * @param rightThumbIndex the index of the right thumb
+     * @throws IllegalStateException if {@link #setRanges} has not been called
+     * @throws IllegalArgumentException if an index is out of bounds
+     */
+    public void setThumbIndices(int row, int leftThumbIndex, int rightThumbIndex) {
+
+        if (mTickCounts == null) {
+            Log.e(TAG, "setRanges() must be called before setThumbIndices().");
+            throw new IllegalStateException("setRanges() must be called before setThumbIndices().");
+        }
+
+        if (isIndexOutOfRange(leftThumbIndex, mTickCounts[row])
+                || isIndexOutOfRange(rightThumbIndex, mTickCounts[row])) {
+            Log.e(TAG, "A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+            throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+        }
+
+        mLeftIndices[row] = leftThumbIndex;
+        mRightIndices[row] = rightThumbIndex;
+
+        if (row == mActiveRow) {
+            mController.setThumbIndices(leftThumbIndex, rightThumbIndex);
+        }
+        invalidateRow(row);
+    }
+
+    public int getLeftIndex(int row) {
+        return mLeftIndices[row];
+    }
+
+    public int getRightIndex(int row) {
+        return mRightIndices[row];
+    }
+
+    /**
+     * Sets a listener to receive notifications of changes to the indices of
+     * any row.
+     * 
+     * @param listener the listener, or null to remove it
+     */
+    public void setOnRangeBarGroupChangeListener(RangeBarGroup.OnRangeBarGroupChangeListener listener) {
+        mListener = listener;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private void rangeBarGroupInit(Context context, AttributeSet attrs) {
+
+        mRowHeight = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                                                     DEFAULT_ROW_HEIGHT_DP,
+                                                     context.getResources().getDisplayMetrics());
+
+        if (attrs == null) {
+            return;
+        }
+
+        TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.RangeBar, 0, 0);
+        try {
+            mTickHeightDP = ta.getDimension(R.styleable.RangeBar_tickHeight, RangeBar.DEFAULT_TICK_HEIGHT_DP);
+            mBarWeight = ta.getDimension(R.styleable.RangeBar_barWeight, RangeBar.DEFAULT_BAR_WEIGHT_PX);
+            mBarColor = ta.getColor(R.styleable.RangeBar_barColor, RangeBar.DEFAULT_BAR_COLOR);
+            mConnectingLineWeight = ta.getDimension(R.styleable.RangeBar_connectingLineWeight,
+                                                    RangeBar.DEFAULT_CONNECTING_LINE_WEIGHT_PX);
+            mConnectingLineColor = ta.getColor(R.styleable.RangeBar_connectingLineColor,
+                                               RangeBar.DEFAULT_CONNECTING_LINE_COLOR);
+            mThumbRadiusDP = ta.getDimension(R.styleable.RangeBar_thumbRadius, RangeBar.DEFAULT_THUMB_RADIUS_DP);
+            mThumbImageNormal = ta.getResourceId(R.styleable.RangeBar_thumbImageNormal,
+                                                 RangeBar.DEFAULT_THUMB_IMAGE_NORMAL);
+            mThumbImagePressed = ta.getResourceId(R.styleable.RangeBar_thumbImagePressed,
+                                                  RangeBar.DEFAULT_THUMB_IMAGE_PRESSED);
+            mThumbColorNormal = ta.getColor(R.styleable.RangeBar_thumbColorNormal,
+                                            RangeBar.DEFAULT_THUMB_COLOR_NORMAL);
+            mThumbColorPressed = ta.getColor(R.styleable.RangeBar_thumbColorPressed,
+                                             RangeBar.DEFAULT_THUMB_COLOR_PRESSED);
+            if (ta.getInt(R.styleable.RangeBar_thumbBitmapConfig, RangeBar.THUMB_BITMAP_CONFIG_ARGB_8888) == RangeBar.THUMB_BITMAP_CONFIG_RGB_565) {
+                mThumbBitmapConfig = Bitmap.Config.RGB_565;
+            }
+        } finally {
+            ta.recycle();
+        }
+
+        ta = context.obtainStyledAttributes(attrs, R.styleable.RangeBarGroup, 0, 0);
+        try {
+            mRowHeight = ta.getDimensionPixelSize(R.styleable.RangeBarGroup_rowHeight, mRowHeight);
+        } finally {
+            ta.recycle();
+        }
+    }
+
+    /**
+     * Moves the controller to a row, without notifying the listener.
+     */
+    private void activateRow(int row) {
+
+        mActiveRow = -1;
+
+        mController.restoreTickCount(mTickCounts[row], false);
+        mController.setLayout(mRenderer.getMarginLeft(), mRenderer.getBarY(), mRenderer.getBarLength());
+        mController.setThumbIndices(mLeftIndices[row], mRightIndices[row]);
+
+        mActiveRow = row;
+    }
+
+    private void invalidateRow(int row) {
+        invalidate(0, row * mRowHeight, getWidth(), (row + 1) * mRowHeight);
+    }
+
+    private static boolean isIndexOutOfRange(int index, int tickCount) {
+        return index < 0 || index >= tickCount;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * A callback that notifies clients when the range of a row has changed.
+     * The listener will only be called when either thumb's index has changed -
+     * not for every movement of the thumb.
+     */
+    public static interface OnRangeBarGroupChangeListener {
+
+        public void onIndexChangeListener(RangeBarGroup rangeBarGroup,
+                                          int row,
+                                          int leftThumbIndex,
+                                          int rightThumbIndex);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+
+import java.util.ArrayList;
+
+/**
+ * Releases the memory held by RangeBars when the system asks for it, as set
+ * by the process-wide trim policy. The RangeBars attached to a window are
+ * tracked here, and a single {@link ComponentCallbacks2} is registered with
+ * the application context on API 14+ the first time one is attached. On
+ * older versions only the release on detach applies.
+ * <p>
+ * Only accessed on the UI thread.
+ */
+final class RangeBarMemory {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private static int sTrimPolicy = RangeBar.TRIM_POLICY_BACKGROUND;
+
+    private static final ArrayList<RangeBar> sAttached = new ArrayList<RangeBar>();
+
+    private static boolean sRegistered;
+
+    private RangeBarMemory() {
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    static int getTrimPolicy() {
+        return sTrimPolicy;
+    }
+
+    static void setTrimPolicy(int policy) {
+        sTrimPolicy = policy;
+    }
+
+    static void onAttached(Context context, RangeBar rangeBar) {
+
+        if (!sRegistered && Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            sRegistered = true;
+            context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+                @Override
+                public void onTrimMemory(int level) {
+                    trimMemory(level);
+                }
+
+                @Override
+                public void onLowMemory() {
+                    trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+                }
+
+                @Override
+                public void onConfigurationChanged(Configuration newConfig) {
+                }
+            });
+        }
+
+        if (!sAttached.contains(rangeBar)) {
+            sAttached.add(rangeBar);
+        }
+    }
+
+    static void onDetached(RangeBar rangeBar) {
+
+        sAttached.remove(rangeBar);
+
+        if (sTrimPolicy == RangeBar.TRIM_POLICY_AGGRESSIVE) {
+            rangeBar.releaseResources();
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Releases the resources of the attached RangeBars and the shared caches
+     * if the policy allows it at the given level.
+     * 
+     * @param level a ComponentCallbacks2.TRIM_MEMORY_* level
+     */
+    private static void trimMemory(int level) {
+
+        if (!shouldTrim(level)) {
+            return;
+        }
+
+        // The shared caches are refilled on demand: snapshots are requested
+        // again when drawn and thumb images are decoded by each Thumb.
+        RangeBarSnapshots.clear();
+        ThumbCache.clear();
+
+        for (int i = 0; i < sAttached.size(); i++) {
+            sAttached.get(i).releaseResources();
+        }
+    }
+
+    private static boolean shouldTrim(int level) {
+
+        switch (sTrimPolicy) {
+
+            case RangeBar.TRIM_POLICY_BACKGROUND:
+                // The UI is not visible, or the foreground process is about
+                // to be killed.
+                return level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+
+            case RangeBar.TRIM_POLICY_AGGRESSIVE:
+                return level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Process-wide cache of the images of RangeBars in static snapshot mode. A
+ * snapshot is rendered once per {@link RangeBarSnapshots.Key} (style, size,
+ * tick count and indices) on a background thread with the same components
+ * and painter a live RangeBar uses, and kept in an LRU cache bounded in
+ * bytes. Evicted snapshots are not rendered into again, since a RangeBar
+ * that has not been redrawn yet may still draw them; each snapshot is rendered
+ * into a new Bitmap.
+ * <p>
+ * The cache and the waiting RangeBars are only accessed on the UI thread.
+ */
+final class RangeBarSnapshots {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Access-ordered, so that iteration starts at the least recently used.
+    private static final LinkedHashMap<RangeBarSnapshots.Key, Bitmap> sCache = new LinkedHashMap<RangeBarSnapshots.Key, Bitmap>(16, 0.75f, true);
+    private static long sCacheBytes;
+    private static long sMaxCacheBytes = Runtime.getRuntime().maxMemory() / 16;
+
+    // The RangeBars to redraw once a snapshot has been rendered, by key.
+    private static final HashMap<RangeBarSnapshots.Key, ArrayList<RangeBar>> sWaiting = new HashMap<RangeBarSnapshots.Key, ArrayList<RangeBar>>();
+
+    private static ExecutorService sExecutor;
+    private static Handler sMainHandler;
+
+    private RangeBarSnapshots() {
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Gets a rendered snapshot. Does not allocate.
+     * 
+     * @return the snapshot, or null if it has not been rendered yet
+     */
+    static Bitmap get(RangeBarSnapshots.Key key) {
+        return sCache.get(key);
+    }
+
+    /**
+     * Renders a snapshot on the background thread unless it is already being
+     * rendered, and redraws the RangeBar once it is in the cache.
+     * 
+     * @param context any Context; only its application Context is kept by the
+     *            queued task
+     * @param key the snapshot to render; copied, so it may be reused
+     */
+    static void request(Context context, RangeBarSnapshots.Key key, RangeBar rangeBar) {
+
+        ArrayList<RangeBar> waiting = sWaiting.get(key);
+        if (waiting != null) {
+            if (!waiting.contains(rangeBar)) {
+                waiting.add(rangeBar);
+            }
+            return;
+        }
+
+        // The task may outlive the Activity of the RangeBar.
+        final Context appContext = context.getApplicationContext();
+        final RangeBarSnapshots.Key copy = new RangeBarSnapshots.Key(key);
+        waiting = new ArrayList<RangeBar>(1);
+        waiting.add(rangeBar);
+        sWaiting.put(copy, waiting);
+
+        if (sExecutor == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, "RangeBar snapshots");
+                }
+            });
+        }
+
+        sExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                final Bitmap snapshot = render(appContext, copy);
+
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        put(copy, snapshot);
+
+                        final ArrayList<RangeBar> rangeBars = sWaiting.remove(copy);
+                        for (int i = 0; i < rangeBars.size(); i++) {
+                            rangeBars.get(i).invalidate();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Sets the maximum size of the cache, evicting snapshots if needed.
+     * 
+     * @param maxBytes the maximum number of bytes of all cached snapshots
+     */
+    static void setMaxCacheBytes(long maxBytes) {
+        sMaxCacheBytes = maxBytes;
+        trimCache();
+    }
+
+    /**
+     * Drops every cached snapshot. RangeBars showing a snapshot request it
+     * again when they are next drawn.
+     */
+    static void clear() {
+
+        sCache.clear();
+        sCacheBytes = 0;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static void put(RangeBarSnapshots.Key key, Bitmap snapshot) {
+
+        final Bitmap previous = sCache.put(key, snapshot);
+        if (previous != null) {
+            sCacheBytes -= getByteCount(previous);
+        }
+        sCacheBytes += getByteCount(snapshot);
+
+        trimCache();
+    }
+
+    private static void trimCache() {
+
+        final Iterator<Map.Entry<RangeBarSnapshots.Key, Bitmap>> it = sCache.entrySet().iterator();
+        while (sCacheBytes > sMaxCacheBytes && it.hasNext()) {
+            final Bitmap evicted = it.next().getValue();
+            it.remove();
+            sCacheBytes -= getByteCount(evicted);
+        }
+    }
+
+    /**
+     * Draws a RangeBar into a Bitmap. Called on the render thread.
+     */
+    private static Bitmap render(Context context, RangeBarSnapshots.Key key) {
+
+        // The thumb images are shared by every snapshot of the style through
+        // the prewarm cache, so each snapshot does not decode them again.
+        final boolean drawImages = key.mThumbRadiusDP == -1 && key.mThumbColorNormal == -1
+                && key.mThumbColorPressed == -1;
+        ThumbCache.prewarm(context.getResources(), key.mThumbImageNormal, key.mThumbBitmapConfig, drawImages);
+        ThumbCache.prewarm(context.getResources(), key.mThumbImagePressed, key.mThumbBitmapConfig, drawImages);
+
+        final Thumb thumb = new Thumb(context,
+                                      key.mThumbColorNormal,
+                                      key.mThumbColorPressed,
+                                      key.mThumbRadiusDP,
+                                      key.mThumbImageNormal,
+                                      key.mThumbImagePressed,
+                                      key.mThumbBitmapConfig,
+                                      null);
+        final Bar bar = new Bar(context, key.mTickHeightDP, key.mBarWeight, key.mBarColor);
+        final ConnectingLine connectingLine = new ConnectingLine(context,
+                                                                 key.mConnectingLineWeight,
+                                                                 key.mConnectingLineColor);
+
+        final RangeBarPainter painter = new RangeBarPainter();
+        final AndroidCanvas canvas = new AndroidCanvas();
+        thumb.apply(painter, canvas);
+        bar.apply(painter, canvas);
+        connectingLine.apply(canvas);
+
+        final RangeBarController controller = new RangeBarController(key.mTickCount, null);
+        final float marginLeft = thumb.getHalfWidth();
+        controller.setLayout(marginLeft, key.mHeight / 2f, key.mWidth - 2 * marginLeft);
+        controller.setThumbIndices(key.mLeftIndex, key.mRightIndex);
+
+        final Bitmap snapshot = Bitmap.createBitmap(key.mWidth, key.mHeight, Bitmap.Config.ARGB_8888);
+        canvas.setCanvas(new Canvas(snapshot));
+        painter.draw(canvas, controller);
+        canvas.setCanvas(null);
+        return snapshot;
+    }
+
+    private static int getByteCount(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * Everything a snapshot depends on. Filled in by the RangeBar, which reuses
+     * a single instance for its lookups.
+     */
+    static class Key {
+
+        float mTickHeightDP;
+        float mBarWeight;
+        int mBarColor;
+        float mConnectingLineWeight;
+        int mConnectingLineColor;
+        int mThumbImageNormal;
+        int mThumbImagePressed;
+        float mThumbRadiusDP;
+        int mThumbColorNormal;
+        int mThumbColorPressed;
+        Bitmap.Config mThumbBitmapConfig;
+        int mDensityDpi;
+
+        int mWidth;
+        int mHeight;
+        int mTickCount;
+        int mLeftIndex;
+        int mRightIndex;
+
+        Key() {
+        }
+
+        Key(RangeBarSnapshots.Key other) {
+            mTickHeightDP = other.mTickHeightDP;
+            mBarWeight = other.mBarWeight;
+            mBarColor = other.mBarColor;
+            mConnectingLineWeight = other.mConnectingLineWeight;
+            mConnectingLineColor = other.mConnectingLineColor;
+            mThumbImageNormal = other.mThumbImageNormal;
+            mThumbImagePressed = other.mThumbImagePressed;
+            mThumbRadiusDP = other.mThumbRadiusDP;
+            mThumbColorNormal = other.mThumbColorNormal;
+            mThumbColorPressed = other.mThumbColorPressed;
+            mThumbBitmapConfig = other.mThumbBitmapConfig;
+            mDensityDpi = other.mDensityDpi;
+            mWidth = other.mWidth;
+            mHeight = other.mHeight;
+            mTickCount = other.mTickCount;
+            mLeftIndex = other.mLeftIndex;
+            mRightIndex = other.mRightIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof RangeBarSnapshots.Key)) {
+                return false;
+            }
+            final RangeBarSnapshots.Key other = (RangeBarSnapshots.Key) o;
+            return mTickHeightDP == other.mTickHeightDP
+                    && mBarWeight == other.mBarWeight
+                    && mBarColor == other.mBarColor
+                    && mConnectingLineWeight == other.mConnectingLineWeight
+                    && mConnectingLineColor == other.mConnectingLineColor
+                    && mThumbImageNormal == other.mThumbImageNormal
+                    && mThumbImagePressed == other.mThumbImagePressed
+                    && mThumbRadiusDP == other.mThumbRadiusDP
+                    && mThumbColorNormal == other.mThumbColorNormal
+                    && mThumbColorPressed == other.mThumbColorPressed
+                    && mThumbBitmapConfig == other.mThumbBitmapConfig
+                    && mDensityDpi == other.mDensityDpi
+                    && mWidth == other.mWidth
+                    && mHeight == other.mHeight
+                    && mTickCount == other.mTickCount
+                    && mLeftIndex == other.mLeftIndex
+                    && mRightIndex == other.mRightIndex;
+        }
+
+        @Override
+        public int hashCode() {
+
+            int hash = Float.floatToIntBits(mTickHeightDP);
+            hash = 31 * hash + Float.floatToIntBits(mBarWeight);
+            hash = 31 * hash + mBarColor;
+            hash = 31 * hash + Float.floatToIntBits(mConnectingLineWeight);
+            hash = 31 * hash + mConnectingLineColor;
+            hash = 31 * hash + mThumbImageNormal;
+            hash = 31 * hash + mThumbImagePressed;
+            hash = 31 * hash + Float.floatToIntBits(mThumbRadiusDP);
+            hash = 31 * hash + mThumbColorNormal;
+            hash = 31 * hash + mThumbColorPressed;
+            hash = 31 * hash + ((mThumbBitmapConfig != null) ? mThumbBitmapConfig.ordinal() + 1 : 0);
+            hash = 31 * hash + mDensityDpi;
+            hash = 31 * hash + mWidth;
+            hash = 31 * hash + mHeight;
+            hash = 31 * hash + mTickCount;
+            hash = 31 * hash + mLeftIndex;
+            hash = 31 * hash + mRightIndex;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,663 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PixelFormat;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import com.edmodo.rangebar.core.EventQueue;
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+import com.edmodo.rangebar.core.ThumbModel;
+import com.edmodo.rangebar.core.TickGeometry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A RangeBar that draws on its own render thread into a SurfaceView, for bars
+ * with heavy overlays such as histograms or labels that would otherwise make
+ * onDraw compete with the rest of the UI thread, e.g. a scrolling list. The
+ * UI thread only forwards touch events and setter calls through a lock-free
+ * {@link EventQueue}; the render thread applies them to the
+ * {@link RangeBarController}, decodes the thumbs, and draws the bar, the
+ * {@link RangeBarSurfaceView.Overlay} and the thumbs whenever something
+ * changed. Index changes are reported back on the UI thread.
+ * <p>
+ * The surface keeps the default Z-order behind the window, which leaves a
+ * hole for it, so views drawn above the RangeBar, e.g. list headers or
+ * dialogs, still cover it. The surface is opaque and filled with the theme's
+ * background color, see {@link #setSurfaceBackgroundColor(int)}. It is styled
+ * with the RangeBar attributes (tickCount, tickHeight, barColor,
+ * thumbImageNormal, ...). All public methods must be called on the UI thread.
+ */
+public class RangeBarSurfaceView extends SurfaceView implements SurfaceHolder.Callback {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private static final String TAG = "RangeBarSurfaceView";
+
+    // Touch events and setter calls queued for the render thread; a touch
+    // event's value is its event time.
+    private static final int EVENT_DOWN = 0;
+    private static final int EVENT_MOVE = 1;
+    private static final int EVENT_UP = 2;
+    private static final int EVENT_SET_TICK_COUNT = 3;
+    private static final int EVENT_SET_THUMB_INDICES = 4;
+    private static final int EVENT_RESIZE = 5;
+    private static final int EVENT_REDRAW = 6;
+
+    // Several seconds of touch events at 120Hz, so that it only fills if the
+    // render thread has stalled.
+    private static final int QUEUE_CAPACITY = 512;
+
+    // How long the UI thread waits before retrying to queue an event that must
+    // not be dropped.
+    private static final long QUEUE_RETRY_NANOS = 100000L;
+
+    // Style, read on the UI thread before the render thread is started.
+    private float mTickHeightDP = RangeBar.DEFAULT_TICK_HEIGHT_DP;
+    private float mBarWeight = RangeBar.DEFAULT_BAR_WEIGHT_PX;
+    private int mBarColor = RangeBar.DEFAULT_BAR_COLOR;
+    private float mConnectingLineWeight = RangeBar.DEFAULT_CONNECTING_LINE_WEIGHT_PX;
+    private int mConnectingLineColor = RangeBar.DEFAULT_CONNECTING_LINE_COLOR;
+    private int mThumbImageNormal = RangeBar.DEFAULT_THUMB_IMAGE_NORMAL;
+    private int mThumbImagePressed = RangeBar.DEFAULT_THUMB_IMAGE_PRESSED;
+    private float mThumbRadiusDP = RangeBar.DEFAULT_THUMB_RADIUS_DP;
+    private int mThumbColorNormal = RangeBar.DEFAULT_THUMB_COLOR_NORMAL;
+    private int mThumbColorPressed = RangeBar.DEFAULT_THUMB_COLOR_PRESSED;
+    private Bitmap.Config mThumbBitmapConfig;
+
+    // Read on the render thread.
+    private volatile int mSurfaceBackgroundColor = Color.WHITE;
+
+    private int mDefaultWidth = 500;
+    private int mDefaultHeight = 100;
+
+    private final EventQueue mQueue = new EventQueue(QUEUE_CAPACITY);
+
+    // Null while there is no surface, in which case the UI thread applies the
+    // events itself.
+    private RenderThread mRenderThread;
+
+    // The state below is owned by the render thread while it runs, and by the
+    // UI thread otherwise; starting and joining the thread hands it over.
+    private Thumb mThumb;
+    private Bar mBar;
+    private ConnectingLine mConnectingLine;
+    private final RangeBarPainter mPainter = new RangeBarPainter();
+    private final AndroidCanvas mCanvas = new AndroidCanvas();
+    private final EventQueue.Event mEvent = new EventQueue.Event();
+    private int mSurfaceWidth;
+    private int mSurfaceHeight;
+
+    private final RangeBarController mController;
+
+    // The UI thread's view of the state, for validating and answering calls.
+    private int mTickCount;
+    private int mLeftIndex;
+    private int mRightIndex;
+
+    // Index changes made on the render thread, packed into one value and
+    // dispatched on the UI thread at most once per posted message.
+    private final AtomicLong mChangedIndices = new AtomicLong();
+    private final AtomicBoolean mDispatchPending = new AtomicBoolean();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDispatchPending.set(false);
+
+            final long indices = mChangedIndices.get();
+            mLeftIndex = (int) (indices >>> 32);
+            mRightIndex = (int) indices;
+
+            if (mListener != null) {
+                mListener.onIndexChangeListener(RangeBarSurfaceView.this, mLeftIndex, mRightIndex);
+            }
+        }
+    };
+
+    private final RangeBarController.OnIndexChangeListener mIndexChangeListener = new RangeBarController.OnIndexChangeListener() {
+        @Override
+        public void onIndexChange(int leftThumbIndex, int rightThumbIndex) {
+            mChangedIndices.set(((long) leftThumbIndex << 32) | (rightThumbIndex & 0xffffffffL));
+            if (mDispatchPending.compareAndSet(false, true)) {
+                mMainHandler.post(mDispatchRunnable);
+            }
+        }
+    };
+
+    private RangeBarSurfaceView.OnRangeBarSurfaceChangeListener mListener;
+
+    // Read on the render thread.
+    private volatile RangeBarSurfaceView.Overlay mOverlay;
+
+    // Constructors ////////////////////////////////////////////////////////////
+
+    public RangeBarSurfaceView(Context context) {
+        this(context, null);
+    }
+
+    public RangeBarSurfaceView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public RangeBarSurfaceView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+
+        final TypedArray theme = context.obtainStyledAttributes(new int[] { android.R.attr.colorBackground });
+        try {
+            mSurfaceBackgroundColor = theme.getColor(0, Color.WHITE);
+        } finally {
+            theme.recycle();
+        }
+
+        int tickCount = 3;
+        if (attrs != null) {
+            tickCount = rangeBarSurfaceViewInit(context, attrs);
+        }
+
+        mTickCount = tickCount;
+        mLeftIndex = 0;
+        mRightIndex = tickCount - 1;
+        mController = new RangeBarController(tickCount, mIndexChangeListener);
+
+        getHolder().setFormat(PixelFormat.OPAQUE);
+        getHolder().addCallback(this);
+    }
+
+    // View Methods ////////////////////////////////////////////////////////////
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        final int measureWidthMode = MeasureSpec.getMode(widthMeasureSpec);
+        final int measureHeightMode = MeasureSpec.getMode(heightMeasureSpec);
+        final int measureWidth = MeasureSpec.getSize(widthMeasureSpec);
+        final int measureHeight = MeasureSpec.getSize(heightMeasureSpec);
+
+        // The same rules as a RangeBar.
+        final int width = (measureWidthMode == MeasureSpec.UNSPECIFIED) ? mDefaultWidth : measureWidth;
+
+        final int height;
+        if (measureHeightMode == MeasureSpec.EXACTLY) {
+            height = measureHeight;
+        } else if (measureHeightMode == MeasureSpec.AT_MOST) {
+            height = Math.min(mDefaultHeight, measureHeight);
+        } else {
+            height = mDefaultHeight;
+        }
+
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+
+        if (!isEnabled()) {
+            return false;
+        }
+
+        // Whether a thumb was hit is only known on the render thread, so the
+        // parent is kept from intercepting for any drag, as in RangeBar.
+        switch (event.getAction()) {
+
+            case MotionEvent.ACTION_DOWN:
+                post(EVENT_DOWN, event.getX(), event.getY(), event.getEventTime());
+                return true;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                this.getParent().requestDisallowInterceptTouchEvent(false);
+                post(EVENT_UP, event.getX(), event.getY(), event.getEventTime());
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                post(EVENT_MOVE, event.getX(), event.getY(), event.getEventTime());
+                this.getParent().requestDisallowInterceptTouchEvent(true);
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    // SurfaceHolder.Callback Methods //////////////////////////////////////////
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+
+        mRenderThread = new RenderThread(holder);
+        mRenderThread.start();
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        post(EVENT_RESIZE, width, height, 0);
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+
+        // The surface must not be drawn to once this returns.
+        final RenderThread thread = mRenderThread;
+        mRenderThread = null;
+        thread.quit();
+
+        // Take over the events the render thread did not get to.
+        while (mQueue.poll(mEvent)) {
+            applyEvent(mEvent.getType(), mEvent.getX(), mEvent.getY(), mEvent.getValue());
+        }
+    }
+
+    // Public Methods //////////////////////////////////////////////////////////
+
+    /**
+     * Sets the number of ticks. As with RangeBar, the thumbs are reset to the
+     * ends unless a thumb has been pressed or the indices set.
+     * 
+     * @param tickCount Integer specifying the number of ticks.
+     */
+    public void setTickCount(int tickCount) {
+
+        if (!RangeBarController.isValidTickCount(tickCount)) {
+            Log.e(TAG, "tickCount less than 2; invalid tickCount.");
+            throw new IllegalArgumentException("tickCount less than 2; invalid tickCount.");
+        }
+        mTickCount = tickCount;
+        post(EVENT_SET_TICK_COUNT, 0, 0, tickCount);
+    }
+
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * Sets the location of each thumb. The change is applied on the render
+     * thread, and the listener is called on the UI thread afterwards.
+     * 
+     * @param leftThumbIndex Integer specifying the index of the left thumb
+     * @param rightThumbIndex Integer specifying the index of the right thumb
+     */
+    public void setThumbIndices(int leftThumbIndex, int rightThumbIndex) {
+
+        if (isIndexOutOfRange(leftThumbIndex) || isIndexOutOfRange(rightThumbIndex)) {
+            Log.e(TAG, "A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+            throw new IllegalArgumentException("A thumb index is out of bounds. Check that it is between 0 and mTickCount - 1");
+        }
+        mLeftIndex = leftThumbIndex;
+        mRightIndex = rightThumbIndex;
+        post(EVENT_SET_THUMB_INDICES, 0, 0, ((long) leftThumbIndex << 32) | rightThumbIndex);
+    }
+
+    /**
+     * Gets the index of the left thumb, as of the last change reported on the
+     * UI thread.
+     */
+    public int getLeftIndex() {
+        return mLeftIndex;
+    }
+
+    /**
+     * Gets the index of the right thumb, as of the last change reported on the
+     * UI thread.
+     */
+    public int getRightIndex() {
+        return mRightIndex;
+    }
+
+    /**
+     * Sets the overlay drawn between the bar and the thumbs, or removes it.
+     * 
+     * @param overlay the overlay, called on the render thread; may be null
+     */
+    public void setOverlay(RangeBarSurfaceView.Overlay overlay) {
+        mOverlay = overlay;
+        redraw();
+    }
+
+    /**
+     * Sets the color the surface is filled with before each frame. The surface
+     * is behind the window and opaque, so this should match what is behind
+     * the RangeBar. Defaults to the theme's background color.
+     * 
+     * @param color the opaque background color
+     */
+    public void setSurfaceBackgroundColor(int color) {
+        mSurfaceBackgroundColor = color;
+        redraw();
+    }
+
+    /**
+     * Draws the RangeBar again, e.g. after the data of the overlay changed.
+     */
+    public void redraw() {
+        post(EVENT_REDRAW, 0, 0, 0);
+    }
+
+    /**
+     * Sets a listener to receive notifications of changes to the thumb
+     * indices, called on the UI thread.
+     * 
+     * @param listener the listener, or null to remove it
+     */
+    public void setOnRangeBarSurfaceChangeListener(RangeBarSurfaceView.OnRangeBarSurfaceChangeListener listener) {
+        mListener = listener;
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private int rangeBarSurfaceViewInit(Context context, AttributeSet attrs) {
+
+        int tickCount = 3;
+
+        final TypedArray ta = context.obtainStyledAttributes(attrs, R.styleable.RangeBar, 0, 0);
+        try {
+            final int value = ta.getInteger(R.styleable.RangeBar_tickCount, tickCount);
+            if (RangeBarController.isValidTickCount(value)) {
+                tickCount = value;
+            } else {
+                Log.e(TAG, "tickCount less than 2; invalid tickCount. XML input ignored.");
+            }
+
+            mTickHeightDP = ta.getDimension(R.styleable.RangeBar_tickHeight, RangeBar.DEFAULT_TICK_HEIGHT_DP);
+            mBarWeight = ta.getDimension(R.styleable.RangeBar_barWeight, RangeBar.DEFAULT_BAR_WEIGHT_PX);
+            mBarColor = ta.getColor(R.styleable.RangeBar_barColor, RangeBar.DEFAULT_BAR_COLOR);
+            mConnectingLineWeight = ta.getDimension(R.styleable.RangeBar_connectingLineWeight,
+                                                    RangeBar.DEFAULT_CONNECTING_LINE_WEIGHT_PX);
+            mConnectingLineColor = ta.getColor(R.styleable.RangeBar_connectingLineColor,
+                                               RangeBar.DEFAULT_CONNECTING_LINE_COLOR);
+            mThumbRadiusDP = ta.getDimension(R.styleable.RangeBar_thumbRadius, RangeBar.DEFAULT_THUMB_RADIUS_DP);
+            mThumbImageNormal = ta.getResourceId(R.styleable.RangeBar_thumbImageNormal,
+                                                 RangeBar.DEFAULT_THUMB_IMAGE_NORMAL);
+            mThumbImagePressed = ta.getResourceId(R.styleable.RangeBar_thumbImagePressed,
+                                                  RangeBar.DEFAULT_THUMB_IMAGE_PRESSED);
+            mThumbColorNormal = ta.getColor(R.styleable.RangeBar_thumbColorNormal,
+                                            RangeBar.DEFAULT_THUMB_COLOR_NORMAL);
+            mThumbColorPressed = ta.getColor(R.styleable.RangeBar_thumbColorPressed,
+                                             RangeBar.DEFAULT_THUMB_COLOR_PRESSED);
+            if (ta.getInt(R.styleable.RangeBar_thumbBitmapConfig, RangeBar.THUMB_BITMAP_CONFIG_ARGB_8888) == RangeBar.THUMB_BITMAP_CONFIG_RGB_565) {
+                mThumbBitmapConfig = Bitmap.Config.RGB_565;
+            }
+        } finally {
+            ta.recycle();
+        }
+        return tickCount;
+    }
+
+    private boolean isIndexOutOfRange(int index) {
+        return index < 0 || index >= mTickCount;
+    }
+
+    /**
+     * Hands an event to the render thread, or applies it right away if there
+     * is none. Called on the UI thread, the queue's only producer.
+     */
+    private void post(int type, float x, float y, long value) {
+
+        final RenderThread thread = mRenderThread;
+        if (thread == null) {
+            applyEvent(type, x, y, value);
+            return;
+        }
+
+        // A dropped move is superseded by the next one. Any other event
+        // changes the state, e.g. an up that ends a drag, so wait for the
+        // render thread to free a slot; the queue only fills if the render
+        // thread has stopped drawing for seconds.
+        while (!mQueue.offer(type, x, y, value)) {
+
+            if (type == EVENT_MOVE) {
+                break;
+            }
+            if (!thread.isAlive()) {
+                Log.e(TAG, "Render thread stopped; event " + type + " dropped.");
+                break;
+            }
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(QUEUE_RETRY_NANOS);
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Applies an event to the controller. Called by whichever thread owns it.
+     * 
+     * @return true if the RangeBar needs to be drawn again
+     */
+    private boolean applyEvent(int type, float x, float y, long value) {
+
+        switch (type) {
+
+            case EVENT_DOWN:
+                return mController.onActionDown(x, y);
+
+            case EVENT_UP:
+                mController.onActionUp(x, y);
+                return true;
+
+            case EVENT_MOVE:
+                return mController.onActionMove(x);
+
+            case EVENT_SET_TICK_COUNT:
+                mController.setTickCount((int) value);
+                return true;
+
+            case EVENT_SET_THUMB_INDICES:
+                mController.setThumbIndices((int) (value >>> 32), (int) value);
+                return true;
+
+            case EVENT_RESIZE:
+                mSurfaceWidth = (int) x;
+                mSurfaceHeight = (int) y;
+                layoutController();
+                return true;
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Creates the thumbs, bar and connecting line. Called on the render
+     * thread, so that decoding the thumb images does not block the UI thread.
+     */
+    private void createComponents() {
+
+        mThumb = new Thumb(getContext(),
+                           mThumbColorNormal,
+                           mThumbColorPressed,
+                           mThumbRadiusDP,
+                           mThumbImageNormal,
+                           mThumbImagePressed,
+                           mThumbBitmapConfig,
+                           null);
+        mThumb.apply(mPainter, mCanvas);
+        mController.setThumbTargetRadius(mThumb.getTargetRadius());
+
+        mBar = new Bar(getContext(), mTickHeightDP, mBarWeight, mBarColor);
+        mBar.apply(mPainter, mCanvas);
+
+        mConnectingLine = new ConnectingLine(getContext(), mConnectingLineWeight, mConnectingLineColor);
+        mConnectingLine.apply(mCanvas);
+
+        layoutController();
+    }
+
+    private void layoutController() {
+
+        if (mThumb == null) {
+            return;
+        }
+
+        final float marginLeft = mThumb.getHalfWidth();
+        mController.setLayout(marginLeft, mSurfaceHeight / 2f, mSurfaceWidth - 2 * marginLeft);
+        mController.updateIndices();
+    }
+
+    /**
+     * Draws a frame into the surface. Called on the render thread.
+     */
+    private void drawFrame(SurfaceHolder holder) {
+
+        final Canvas canvas = holder.lockCanvas();
+        if (canvas == null) {
+            return;
+        }
+
+        try {
+            canvas.drawColor(mSurfaceBackgroundColor);
+            mCanvas.setCanvas(canvas);
+
+            final float y = mController.getY();
+            final TickGeometry geometry = mController.getGeometry();
+            final ThumbModel leftThumb = mController.getLeftThumb();
+            final ThumbModel rightThumb = mController.getRightThumb();
+
+            mPainter.drawBar(mCanvas, geometry, y);
+
+            final RangeBarSurfaceView.Overlay overlay = mOverlay;
+            if (overlay != null) {
+                overlay.onDrawOverlay(canvas,
+                                      geometry,
+                                      y,
+                                      mController.getLeftIndex(),
+                                      mController.getRightIndex());
+            }
+
+            mPainter.drawConnectingLine(mCanvas, leftThumb.getDrawX(), rightThumb.getDrawX(), y);
+            mPainter.drawThumb(mCanvas, leftThumb);
+            mPainter.drawThumb(mCanvas, rightThumb);
+
+        } finally {
+            mCanvas.setCanvas(null);
+            holder.unlockCanvasAndPost(canvas);
+        }
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * Drains the event queue and draws a frame after each batch of events that
+     * changed something, and sleeps while the queue is empty.
+     */
+    private class RenderThread extends Thread {
+
+        private final SurfaceHolder mHolder;
+
+        private volatile boolean mQuit;
+
+        RenderThread(SurfaceHolder holder) {
+            super("RangeBar render");
+            mHolder = holder;
+        }
+
+        @Override
+        public void run() {
+
+            Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+
+            if (mThumb == null) {
+                createComponents();
+            }
+
+            // Draw once for the new surface.
+            boolean dirty = true;
+
+            while (!mQuit) {
+
+                while (mQueue.poll(mEvent)) {
+                    dirty |= applyEvent(mEvent.getType(), mEvent.getX(), mEvent.getY(), mEvent.getValue());
+                }
+
+                if (dirty && mSurfaceWidth > 0 && mSurfaceHeight > 0) {
+                    drawFrame(mHolder);
+                    dirty = false;
+                } else if (mQueue.isEmpty()) {
+                    // Woken by the next post() or by quit().
+                    LockSupport.park(this);
+                }
+            }
+        }
+
+        /**
+         * Stops the thread and waits for it to finish its frame.
+         */
+        void quit() {
+
+            mQuit = true;
+            LockSupport.unpark(this);
+
+            boolean interrupted = false;
+            while (isAlive()) {
+                try {
+                    join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Draws on top of the bar and below the thumbs, e.g. a histogram of the
+     * values in the range or labels for the ticks. Called on the render
+     * thread, so the data it draws must be safe to read from there.
+     */
+    public static interface Overlay {
+
+        /**
+         * @param canvas the Canvas of the surface
+         * @param geometry the positions of the bar and ticks
+         * @param y the y-coordinate of the bar
+         */
+        public void onDrawOverlay(Canvas canvas,
+                                  TickGeometry geometry,
+                                  float y,
+                                  int leftThumbIndex,
+                                  int rightThumbIndex);
+    }
+
+    /**
+     * A callback that notifies clients when the RangeBar has changed. The
+     * listener will only be called when either thumb's index has changed -
+     * not for every movement of the thumb. Changes made in quick succession
+     * on the render thread may be reported once, with the latest indices.
+     */
+    public static interface OnRangeBarSurfaceChangeListener {
+
+        public void onIndexChangeListener(RangeBarSurfaceView rangeBarSurfaceView,
+                                          int leftThumbIndex,
+                                          int rightThumbIndex);
+    }
+}
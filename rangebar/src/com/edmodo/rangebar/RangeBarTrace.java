@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.edmodo.rangebar.core.TraceRecorder;
+
+/**
+ * Marks the hot sections of the RangeBar both as platform trace sections
+ * (visible in systrace) and in an in-process {@link TraceRecorder}. Tracing is
+ * process-wide and off by default; while it is off each section costs a
+ * single volatile read.
+ * <p>
+ * Usage:
+ * 
+ * <pre>
+ * final TraceRecorder trace = RangeBarTrace.begin(RangeBarTrace.ON_DRAW);
+ * ...
+ * RangeBarTrace.end(trace, RangeBarTrace.ON_DRAW);
+ * </pre>
+ * 
+ * Passing the recorder returned by begin() to end() keeps the sections
+ * balanced if tracing is switched on or off in between.
+ */
+final class RangeBarTrace {
+
+    // Sections ////////////////////////////////////////////////////////////////
+
+    static final int ON_MEASURE = 0;
+    static final int ON_SIZE_CHANGED = 1;
+    static final int ON_DRAW = 2;
+    static final int ACTION_DOWN = 3;
+    static final int ACTION_MOVE = 4;
+    static final int ACTION_UP = 5;
+    static final int CREATE_THUMB = 6;
+    static final int LISTENER = 7;
+
+    static final String[] NAMES = {
+            "RangeBar.onMeasure",
+            "RangeBar.onSizeChanged",
+            "RangeBar.onDraw",
+            "RangeBar.onActionDown",
+            "RangeBar.onActionMove",
+            "RangeBar.onActionUp",
+            "Thumb.<init>",
+            "RangeBar.listener"
+    };
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // The active recorder; null while tracing is off.
+    private static volatile TraceRecorder sRecorder;
+
+    // The most recent recorder, kept after tracing is switched off so that
+    // its events can still be exported.
+    private static volatile TraceRecorder sLastRecorder;
+
+    private RangeBarTrace() {
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    static void setEnabled(boolean enabled, int capacity) {
+
+        if (enabled) {
+            if (sRecorder == null) {
+                final TraceRecorder recorder = new TraceRecorder(NAMES, capacity);
+                sLastRecorder = recorder;
+                sRecorder = recorder;
+            }
+        } else {
+            sRecorder = null;
+        }
+    }
+
+    static boolean isEnabled() {
+        return sRecorder != null;
+    }
+
+    static TraceRecorder getLastRecorder() {
+        return sLastRecorder;
+    }
+
+    /**
+     * Starts a section if tracing is on.
+     * 
+     * @param section the section, e.g. {@link #ON_DRAW}
+     * @return the recorder to pass to {@link #end(TraceRecorder, int)}; null
+     *         if tracing is off
+     */
+    static TraceRecorder begin(int section) {
+
+        final TraceRecorder recorder = sRecorder;
+        if (recorder != null) {
+            recorder.begin(section);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                Trace.beginSection(NAMES[section]);
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Ends a section started with {@link #begin(int)}.
+     * 
+     * @param recorder the value returned by begin()
+     * @param section the section passed to begin()
+     */
+    static void end(TraceRecorder recorder, int section) {
+
+        if (recorder != null) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                Trace.endSection();
+            }
+            recorder.end(section);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collects the tick counts and thumb indices posted to a RangeBar from any
+ * thread in a single pending slot, and applies them on the UI thread at the
+ * start of the next frame. Posts made before the frame are merged, the later
+ * value of each field winning, so a burst of updates from a background thread
+ * costs one message and one frame rather than one of each per update.
+ * <p>
+ * Frames are scheduled with a Choreographer on API 16+; below that the update
+ * is applied as soon as the UI thread handles the posted message.
+ */
+final class RangeBarUpdater {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private static Handler sMainHandler;
+
+    private final RangeBar mRangeBar;
+
+    // The update waiting to be applied, or null. A post that finds it null is
+    // the one that schedules the frame.
+    private final AtomicReference<RangeBarUpdater.Update> mPending = new AtomicReference<RangeBarUpdater.Update>();
+
+    // A Choreographer.FrameCallback applying the update on API 16+; created
+    // on the UI thread, as Choreographer instances are per thread.
+    private Object mFrameCallback;
+
+    private final Runnable mScheduleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            schedule();
+        }
+    };
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    RangeBarUpdater(RangeBar rangeBar) {
+        mRangeBar = rangeBar;
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Merges an update into the pending one. Can be called from any thread.
+     * 
+     * @param tickCount the new tick count, or 0 to keep it
+     * @param leftThumbIndex the new index of the left thumb, or -1 to keep
+     *            both indices
+     * @param rightThumbIndex the new index of the right thumb
+     */
+    void post(int tickCount, int leftThumbIndex, int rightThumbIndex) {
+
+        RangeBarUpdater.Update previous;
+        RangeBarUpdater.Update update;
+        do {
+            previous = mPending.get();
+            update = (previous == null)
+                    ? new RangeBarUpdater.Update(tickCount, leftThumbIndex, rightThumbIndex)
+                    : previous.merge(tickCount, leftThumbIndex, rightThumbIndex);
+        } while (!mPending.compareAndSet(previous, update));
+
+        if (previous == null) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                schedule();
+            } else {
+                getMainHandler().post(mScheduleRunnable);
+            }
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Applies the pending update at the next frame. Called on the UI thread.
+     */
+    private void schedule() {
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mFrameCallback == null) {
+                mFrameCallback = new RangeBarUpdater.FrameCallback(this);
+            }
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+        } else {
+            apply();
+        }
+    }
+
+    private void apply() {
+
+        final RangeBarUpdater.Update update = mPending.getAndSet(null);
+        if (update != null) {
+            mRangeBar.applyUpdate(update.mTickCount, update.mLeftIndex, update.mRightIndex);
+        }
+    }
+
+    private static synchronized Handler getMainHandler() {
+
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * An immutable pending update, replaced as a whole when merged.
+     */
+    private static class Update {
+
+        final int mTickCount;
+        final int mLeftIndex;
+        final int mRightIndex;
+
+        Update(int tickCount, int leftIndex, int rightIndex) {
+            mTickCount = tickCount;
+            mLeftIndex = leftIndex;
+            mRightIndex = rightIndex;
+        }
+
+        RangeBarUpdater.Update merge(int tickCount, int leftIndex, int rightIndex) {
+
+            final boolean hasIndices = leftIndex >= 0;
+            return new RangeBarUpdater.Update((tickCount > 0) ? tickCount : mTickCount,
+                                              hasIndices ? leftIndex : mLeftIndex,
+                                              hasIndices ? rightIndex : mRightIndex);
+        }
+    }
+
+    /**
+     * Only loaded on API 16+, where Choreographer exists.
+     */
+    private static class FrameCallback implements Choreographer.FrameCallback {
+
+        private final RangeBarUpdater mUpdater;
+
+        FrameCallback(RangeBarUpdater updater) {
+            mUpdater = updater;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mUpdater.apply();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+
+import com.edmodo.rangebar.core.RangeBarController;
+import com.edmodo.rangebar.core.RangeBarPainter;
+import com.edmodo.rangebar.core.ThumbModel;
+import com.edmodo.rangebar.core.TickGeometry;
+
+/**
+ * Draws the connecting line and the two thumbs of a RangeBar in child Views,
+ * so that the RangeBar itself only draws the bar and its ticks. Used on
+ * hardware-accelerated windows (API 11+), where a drag then only changes View
+ * properties: the translation of the pressed thumb's View, which has a
+ * hardware layer while it is pressed, and the translation and scale of the
+ * line's View. Neither the display list of the bar nor those of the thumbs
+ * are recorded again, except when a thumb is pressed or released.
+ * <p>
+ * The Views are laid out and moved by the RangeBar; they never receive
+ * touches.
+ */
+final class SelectionLayers {
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    private final RangeBar mRangeBar;
+    private final RangeBarController mController;
+    private final RangeBarPainter mPainter;
+    private final AndroidCanvas mCanvas;
+
+    private final LineView mLineView;
+    private final ThumbView mLeftThumbView;
+    private final ThumbView mRightThumbView;
+
+    // Half the width of the thumb Views, in pixels.
+    private int mThumbHalfWidth;
+
+    // Constructor /////////////////////////////////////////////////////////////
+
+    SelectionLayers(RangeBar rangeBar, RangeBarController controller, RangeBarPainter painter, AndroidCanvas canvas) {
+
+        mRangeBar = rangeBar;
+        mController = controller;
+        mPainter = painter;
+        mCanvas = canvas;
+
+        final Context context = rangeBar.getContext();
+        mLineView = new LineView(context);
+        mLeftThumbView = new ThumbView(context);
+        mRightThumbView = new ThumbView(context);
+
+        // Added in drawing order, above the bar drawn by the RangeBar.
+        rangeBar.addView(mLineView);
+        rangeBar.addView(mLeftThumbView);
+        rangeBar.addView(mRightThumbView);
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Shows or hides the Views; while they are hidden the RangeBar draws the
+     * line and the thumbs itself.
+     */
+    void setVisible(boolean visible) {
+
+        final int visibility = visible ? View.VISIBLE : View.GONE;
+        mLineView.setVisibility(visibility);
+        mLeftThumbView.setVisibility(visibility);
+        mRightThumbView.setVisibility(visibility);
+    }
+
+    /**
+     * Lays out the Views to the size of the RangeBar and the thumbs.
+     * 
+     * @param width the width of the RangeBar
+     * @param height the height of the RangeBar
+     * @param thumbHalfWidth half the width of a thumb in either state
+     */
+    void layout(int width, int height, float thumbHalfWidth) {
+
+        // One extra pixel for anti-aliasing.
+        mThumbHalfWidth = (int) Math.ceil(thumbHalfWidth) + 1;
+
+        layoutView(mLineView, width, height);
+        layoutView(mLeftThumbView, 2 * mThumbHalfWidth, height);
+        layoutView(mRightThumbView, 2 * mThumbHalfWidth, height);
+    }
+
+    /**
+     * Moves the Views to the current thumb positions. Only View properties
+     * change, unless a thumb was pressed or released.
+     */
+    void update() {
+
+        final ThumbModel leftThumb = mController.getLeftThumb();
+        final ThumbModel rightThumb = mController.getRightThumb();
+
+        mLeftThumbView.update(leftThumb.getDrawX() - mThumbHalfWidth, leftThumb.isPressed());
+        mRightThumbView.update(rightThumb.getDrawX() - mThumbHalfWidth, rightThumb.isPressed());
+
+        // The line is recorded across the whole bar and scaled from its left
+        // end down to the part between the thumbs.
+        final TickGeometry geometry = mController.getGeometry();
+        final float barLength = geometry.getRightX() - geometry.getLeftX();
+
+        mLineView.setPivotX(geometry.getLeftX());
+        mLineView.setTranslationX(leftThumb.getDrawX() - geometry.getLeftX());
+        mLineView.setScaleX((barLength > 0) ? (rightThumb.getDrawX() - leftThumb.getDrawX()) / barLength : 0);
+    }
+
+    /**
+     * Records the Views again, e.g. after the style or the geometry changed.
+     */
+    void invalidate() {
+        mLineView.invalidate();
+        mLeftThumbView.invalidate();
+        mRightThumbView.invalidate();
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static void layoutView(View view, int width, int height) {
+
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                     View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    /**
+     * Draws the connecting line across the whole bar.
+     */
+    private class LineView extends View {
+
+        LineView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+
+            if (!mRangeBar.isDrawingComponents()) {
+                return;
+            }
+
+            final TickGeometry geometry = mController.getGeometry();
+
+            mCanvas.setCanvas(canvas);
+            mPainter.drawConnectingLine(mCanvas, geometry.getLeftX(), geometry.getRightX(), mController.getY());
+            mCanvas.setCanvas(null);
+        }
+    }
+
+    /**
+     * Draws a thumb in the center of the View.
+     */
+    private class ThumbView extends View {
+
+        // The state drawn; changing it records the View again.
+        private boolean mPressed;
+
+        ThumbView(Context context) {
+            super(context);
+        }
+
+        void update(float translationX, boolean pressed) {
+
+            setTranslationX(translationX);
+
+            if (pressed != mPressed) {
+                mPressed = pressed;
+
+                // Only moved while pressed, so only then worth a layer.
+                setLayerType(pressed ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE, null);
+                invalidate();
+            }
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+
+            if (!mRangeBar.isDrawingComponents()) {
+                return;
+            }
+
+            mCanvas.setCanvas(canvas);
+            mPainter.drawThumb(mCanvas, mThumbHalfWidth, mController.getY(), mPressed);
+            mCanvas.setCanvas(null);
+        }
+    }
+}
@@ -16,14 +16,16 @@ package com.edmodo.rangebar;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.TypedValue;
 
+import com.edmodo.rangebar.core.RangeBarPainter;
+
 /**
- * Represents a thumb in the RangeBar slider. This is the handle for the slider
- * that is pressed and slid.
+ * Represents the appearance of a thumb in the RangeBar slider. This is the
+ * handle for the slider that is pressed and slid. Both thumbs share the same
+ * appearance, so a single instance provides the images or Paints that the
+ * {@link RangeBarPainter} draws both thumbs with.
  */
 class Thumb {
 
@@ -47,10 +49,17 @@ class Thumb {
     // Radius (in pixels) of the touch area of the thumb.
     private final float mTargetRadiusPx;
 
-    // The normal and pressed images to display for the thumbs.
+    // The normal and pressed images to display for the thumbs; null if the
+    // thumbs are drawn as circles.
     private final Bitmap mImageNormal;
     private final Bitmap mImagePressed;
 
+    // Whether the images were decoded by this Thumb rather than taken from the
+    // ThumbCache, which shares them with other Thumbs; only those may be
+    // decoded into by the Thumb replacing this one.
+    private final boolean mOwnsImageNormal;
+    private final boolean mOwnsImagePressed;
+
     // Variables to store half the width/height for easier calculation.
     private final float mHalfWidthNormal;
     private final float mHalfHeightNormal;
@@ -58,15 +67,6 @@ class Thumb {
     private final float mHalfWidthPressed;
     private final float mHalfHeightPressed;
 
-    // Indicates whether this thumb is currently pressed and active.
-    private boolean mIsPressed = false;
-
-    // The y-position of the thumb in the parent view. This should not change.
-    private final float mY;
-
-    // The current x-position of the thumb in the parent view.
-    private float mX;
-
     // mPaint to draw the thumbs if attributes are selected
     private Paint mPaintNormal;
     private Paint mPaintPressed;
@@ -83,27 +83,70 @@ class Thumb {
 
     // Constructors ////////////////////////////////////////////////////////////
 
+    /**
+     * @param bitmapConfig the config to decode the images with; null for the
+     *            default ARGB_8888
+     * @param previous the Thumb this one replaces, whose own Bitmaps may be
+     *            decoded into; null if there is none
+     */
     Thumb(Context ctx,
-          float y,
           int thumbColorNormal,
           int thumbColorPressed,
           float thumbRadiusDP,
           int thumbImageNormal,
-          int thumbImagePressed) {
+          int thumbImagePressed,
+          Bitmap.Config bitmapConfig,
+          Thumb previous) {
 
         final Resources res = ctx.getResources();
 
-        mImageNormal = BitmapFactory.decodeResource(res, thumbImageNormal);
-        mImagePressed = BitmapFactory.decodeResource(res, thumbImagePressed);
-
         // If any of the attributes are set, toggle bitmap off
         if (thumbRadiusDP == -1 && thumbColorNormal == -1 && thumbColorPressed == -1) {
 
             mUseBitmap = true;
 
+            // Whether a Bitmap is still in the ThumbCache says nothing about
+            // whether other Thumbs draw it, e.g. after the cache was cleared,
+            // so only Bitmaps the previous Thumb decoded itself are reused.
+            final Bitmap reuseNormal = (previous != null && previous.mOwnsImageNormal)
+                    ? previous.mImageNormal
+                    : null;
+            final Bitmap reusePressed = (previous != null
+                    && previous.mOwnsImagePressed
+                    && previous.mImagePressed != reuseNormal)
+                    ? previous.mImagePressed
+                    : null;
+
+            final Bitmap cachedNormal = ThumbCache.getBitmap(res, thumbImageNormal, bitmapConfig);
+            mOwnsImageNormal = (cachedNormal == null);
+            mImageNormal = mOwnsImageNormal
+                    ? ThumbDecoder.decode(res, thumbImageNormal, bitmapConfig, reuseNormal)
+                    : cachedNormal;
+
+            if (thumbImagePressed == thumbImageNormal) {
+                mImagePressed = mImageNormal;
+                mOwnsImagePressed = mOwnsImageNormal;
+            } else {
+                final Bitmap cachedPressed = ThumbCache.getBitmap(res, thumbImagePressed, bitmapConfig);
+                mOwnsImagePressed = (cachedPressed == null);
+                mImagePressed = mOwnsImagePressed
+                        ? ThumbDecoder.decode(res, thumbImagePressed, bitmapConfig, reusePressed)
+                        : cachedPressed;
+            }
+
+            mHalfWidthNormal = mImageNormal.getWidth() / 2f;
+            mHalfHeightNormal = mImageNormal.getHeight() / 2f;
+
+            mHalfWidthPressed = mImagePressed.getWidth() / 2f;
+            mHalfHeightPressed = mImagePressed.getHeight() / 2f;
+
         } else {
 
             mUseBitmap = false;
+            mImageNormal = null;
+            mImagePressed = null;
+            mOwnsImageNormal = false;
+            mOwnsImagePressed = false;
 
             // If one of the attributes are set, but the others aren't, set the
             // attributes to default
@@ -134,103 +177,121 @@ class Thumb {
             mPaintPressed = new Paint();
             mPaintPressed.setColor(mThumbColorPressed);
             mPaintPressed.setAntiAlias(true);
-        }
 
-        mHalfWidthNormal = mImageNormal.getWidth() / 2f;
-        mHalfHeightNormal = mImageNormal.getHeight() / 2f;
+            // The images are not drawn, but their size still sets the margins
+            // of the bar, so only their bounds are decoded.
+            final int[] size = new int[2];
 
-        mHalfWidthPressed = mImagePressed.getWidth() / 2f;
-        mHalfHeightPressed = mImagePressed.getHeight() / 2f;
+            loadSize(res, thumbImageNormal, size);
+            mHalfWidthNormal = size[0] / 2f;
+            mHalfHeightNormal = size[1] / 2f;
 
-        // Sets the minimum touchable area, but allows it to expand based on
-        // image size
-        int targetRadius = (int) Math.max(MINIMUM_TARGET_RADIUS_DP, thumbRadiusDP);
-
-        mTargetRadiusPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
-                                                    targetRadius,
-                                                    res.getDisplayMetrics());
+            loadSize(res, thumbImagePressed, size);
+            mHalfWidthPressed = size[0] / 2f;
+            mHalfHeightPressed = size[1] / 2f;
+        }
 
-        mX = mHalfWidthNormal;
-        mY = y;
+        mTargetRadiusPx = getTargetRadius(res, thumbRadiusDP);
     }
 
     // Package-Private Methods /////////////////////////////////////////////////
 
-    float getHalfWidth() {
-        return mHalfWidthNormal;
-    }
+    /**
+     * Gets the half width a Thumb created with the given image would have,
+     * without creating it or decoding the image's pixels.
+     * 
+     * @param res the resources to load the image from
+     * @param thumbImageNormal the resource ID of the normal thumb image
+     * @return half the width of the image in pixels
+     */
+    static float getHalfWidth(Resources res, int thumbImageNormal) {
 
-    float getHalfHeight() {
-        return mHalfHeightNormal;
+        final int[] size = new int[2];
+        loadSize(res, thumbImageNormal, size);
+        return size[0] / 2f;
     }
 
-    void setX(float x) {
-        mX = x;
-    }
+    /**
+     * Gets the radius of the touchable area a Thumb created with the given
+     * radius would have.
+     * 
+     * @param res the resources to get the display density from
+     * @param thumbRadiusDP the radius of the thumb in dp, or -1 for images
+     * @return the radius in pixels
+     */
+    static float getTargetRadius(Resources res, float thumbRadiusDP) {
 
-    float getX() {
-        return mX;
-    }
+        // Sets the minimum touchable area, but allows it to expand based on
+        // image size
+        int targetRadius = (int) Math.max(MINIMUM_TARGET_RADIUS_DP, thumbRadiusDP);
 
-    boolean isPressed() {
-        return mIsPressed;
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                                         targetRadius,
+                                         res.getDisplayMetrics());
     }
 
-    void press() {
-        mIsPressed = true;
+    float getHalfWidth() {
+        return mHalfWidthNormal;
     }
 
-    void release() {
-        mIsPressed = false;
+    float getHalfHeight() {
+        return mHalfHeightNormal;
     }
 
     /**
-     * Determines if the input coordinate is close enough to this thumb to
-     * consider it a press.
+     * Gets half the width of the thumb as drawn in either state.
      * 
-     * @param x the x-coordinate of the user touch
-     * @param y the y-coordinate of the user touch
-     * @return true if the coordinates are within this thumb's target area;
-     *         false otherwise
+     * @return the larger of the half widths of the normal and pressed images,
+     *         or the radius of the circle
      */
-    boolean isInTargetZone(float x, float y) {
+    float getMaxHalfWidth() {
+        return mUseBitmap ? Math.max(mHalfWidthNormal, mHalfWidthPressed) : mThumbRadiusPx;
+    }
 
-        if (Math.abs(x - mX) <= mTargetRadiusPx && Math.abs(y - mY) <= mTargetRadiusPx) {
-            return true;
-        }
-        return false;
+    /**
+     * Gets the radius of the touchable area around the thumb.
+     * 
+     * @return the radius in pixels
+     */
+    float getTargetRadius() {
+        return mTargetRadiusPx;
     }
 
     /**
-     * Draws this thumb on the provided canvas.
+     * Sets the thumb's sizes on the painter and registers its Bitmaps or
+     * Paints with the canvas.
      * 
-     * @param canvas Canvas to draw on; should be the Canvas passed into {#link
-     *            View#onDraw()}
+     * @param painter the painter drawing the RangeBar
+     * @param canvas the canvas the painter draws to
      */
-    void draw(Canvas canvas) {
+    void apply(RangeBarPainter painter, AndroidCanvas canvas) {
 
         // If a bitmap is to be printed. Determined by thumbRadius attribute.
         if (mUseBitmap) {
 
-            final Bitmap bitmap = (mIsPressed) ? mImagePressed : mImageNormal;
-
-            if (mIsPressed) {
-                final float topPressed = mY - mHalfHeightPressed;
-                final float leftPressed = mX - mHalfWidthPressed;
-                canvas.drawBitmap(bitmap, leftPressed, topPressed, null);
-            } else {
-                final float topNormal = mY - mHalfHeightNormal;
-                final float leftNormal = mX - mHalfWidthNormal;
-                canvas.drawBitmap(bitmap, leftNormal, topNormal, null);
-            }
+            painter.setThumbImages(mHalfWidthNormal, mHalfHeightNormal, mHalfWidthPressed, mHalfHeightPressed);
+            canvas.setImage(RangeBarPainter.IMAGE_THUMB_NORMAL, mImageNormal);
+            canvas.setImage(RangeBarPainter.IMAGE_THUMB_PRESSED, mImagePressed);
 
         } else {
 
             // Otherwise use a circle to display.
-            if (mIsPressed)
-                canvas.drawCircle(mX, mY, mThumbRadiusPx, mPaintPressed);
-            else
-                canvas.drawCircle(mX, mY, mThumbRadiusPx, mPaintNormal);
+            painter.setThumbCircle(mThumbRadiusPx);
+            canvas.setPaint(RangeBarPainter.PAINT_THUMB_NORMAL, mPaintNormal);
+            canvas.setPaint(RangeBarPainter.PAINT_THUMB_PRESSED, mPaintPressed);
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    /**
+     * Gets the on-screen size of an image from the prewarm cache, or decodes
+     * its bounds.
+     */
+    private static void loadSize(Resources res, int resId, int[] outSize) {
+
+        if (!ThumbCache.getSize(res, resId, outSize)) {
+            ThumbDecoder.getSize(res, resId, outSize);
         }
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the thumb images and sizes decoded by
+ * {@link RangeBar#prewarm(android.content.Context, int)}. Entries are keyed by
+ * resource, screen density and bitmap config, and are shared by every Thumb
+ * that finds them, so a Thumb must never decode into a cached Bitmap.
+ * <p>
+ * Only prewarming and the rendering of static snapshots add entries; images
+ * of other styles are decoded by each Thumb as before. The cache is cleared
+ * under memory pressure, see {@link RangeBar#setTrimPolicy(int)}.
+ */
+final class ThumbCache {
+
+    // Constants ///////////////////////////////////////////////////////////////
+
+    // Low bits of a key holding the config.
+    private static final int CONFIG_BITS = 4;
+
+    // Member Variables ////////////////////////////////////////////////////////
+
+    // Guarded by itself.
+    private static final HashMap<Long, ThumbCache.Entry> sEntries = new HashMap<Long, ThumbCache.Entry>();
+
+    private ThumbCache() {
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Gets a cached image.
+     * 
+     * @return the Bitmap, or null if it has not been prewarmed
+     */
+    static Bitmap getBitmap(Resources res, int resId, Bitmap.Config config) {
+
+        synchronized (sEntries) {
+            final ThumbCache.Entry entry = sEntries.get(getKey(res, resId, config));
+            return (entry != null) ? entry.mBitmap : null;
+        }
+    }
+
+    /**
+     * Gets the cached on-screen size of an image, which is known for any
+     * prewarmed image whether or not its pixels were decoded.
+     * 
+     * @param outSize receives the width and height in pixels
+     * @return true if the size was cached
+     */
+    static boolean getSize(Resources res, int resId, int[] outSize) {
+
+        // The size does not depend on the config, so any entry for the image
+        // will do.
+        final long image = getKey(res, resId, null).longValue() >>> CONFIG_BITS;
+
+        synchronized (sEntries) {
+            for (Map.Entry<Long, ThumbCache.Entry> entry : sEntries.entrySet()) {
+                if (entry.getKey().longValue() >>> CONFIG_BITS == image) {
+                    outSize[0] = entry.getValue().mWidth;
+                    outSize[1] = entry.getValue().mHeight;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Decodes an image, or just its size, into the cache unless it is already
+     * there. Called on the prewarm thread.
+     * 
+     * @param decodePixels false to only cache the size, for thumbs drawn as
+     *            circles
+     */
+    static void prewarm(Resources res, int resId, Bitmap.Config config, boolean decodePixels) {
+
+        final Long key = getKey(res, resId, config);
+
+        synchronized (sEntries) {
+            final ThumbCache.Entry entry = sEntries.get(key);
+            if (entry != null && (entry.mBitmap != null || !decodePixels)) {
+                return;
+            }
+        }
+
+        // Decode outside the lock so that UI-thread lookups do not wait for
+        // it.
+        final ThumbCache.Entry entry = new ThumbCache.Entry();
+        if (decodePixels) {
+            entry.mBitmap = ThumbDecoder.decode(res, resId, config, null);
+            entry.mWidth = entry.mBitmap.getWidth();
+            entry.mHeight = entry.mBitmap.getHeight();
+        } else {
+            final int[] size = new int[2];
+            ThumbDecoder.getSize(res, resId, size);
+            entry.mWidth = size[0];
+            entry.mHeight = size[1];
+        }
+
+        synchronized (sEntries) {
+            sEntries.put(key, entry);
+        }
+    }
+
+    /**
+     * Drops every cached image and size. Thumbs already using a cached Bitmap
+     * keep it, and never decode into it since they did not decode it; later
+     * ones decode their images themselves until prewarmed again.
+     */
+    static void clear() {
+
+        synchronized (sEntries) {
+            sEntries.clear();
+        }
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static Long getKey(Resources res, int resId, Bitmap.Config config) {
+
+        // Null and ARGB_8888 decode the same way.
+        final int configId = (config == null || config == Bitmap.Config.ARGB_8888) ? 0 : config.ordinal() + 1;
+        return Long.valueOf(((long) resId << 32) | (res.getDisplayMetrics().densityDpi << CONFIG_BITS) | configId);
+    }
+
+    // Inner Classes ///////////////////////////////////////////////////////////
+
+    private static class Entry {
+
+        // Null if only the size was cached.
+        Bitmap mBitmap;
+
+        int mWidth;
+        int mHeight;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+
+/**
+ * Decodes thumb images at the size they are drawn on screen. The default
+ * thumbs only exist as xhdpi resources; decoding them with
+ * BitmapFactory.decodeResource() decodes every xhdpi pixel before scaling.
+ * Here the image is subsampled while decoding by the largest power of two
+ * that keeps it at least as large as its on-screen size, and only the
+ * remaining factor is left to density scaling.
+ */
+final class ThumbDecoder {
+
+    private ThumbDecoder() {
+    }
+
+    // Package-Private Methods /////////////////////////////////////////////////
+
+    /**
+     * Gets the on-screen size of an image resource without decoding its
+     * pixels, the same size {@link #decode} returns.
+     * 
+     * @param res the resources to load the image from
+     * @param resId the resource ID of the image
+     * @param outSize receives the width and height in pixels
+     */
+    static void getSize(Resources res, int resId, int[] outSize) {
+
+        final BitmapFactory.Options options = decodeBounds(res, resId);
+        final float scale = res.getDisplayMetrics().densityDpi / (float) getDensity(res, resId);
+
+        outSize[0] = scale(options.outWidth, scale);
+        outSize[1] = scale(options.outHeight, scale);
+    }
+
+    /**
+     * Decodes an image resource at its on-screen size.
+     * 
+     * @param res the resources to load the image from
+     * @param resId the resource ID of the image
+     * @param config the preferred config; null for ARGB_8888
+     * @param reuse a Bitmap that is no longer used and may be decoded into
+     *            on API 19+ if it is large enough; may be null
+     * @return the decoded Bitmap
+     */
+    static Bitmap decode(Resources res, int resId, Bitmap.Config config, Bitmap reuse) {
+
+        final int density = getDensity(res, resId);
+        final int targetDensity = res.getDisplayMetrics().densityDpi;
+
+        final BitmapFactory.Options options = decodeBounds(res, resId);
+        final float scale = targetDensity / (float) density;
+        final int width = scale(options.outWidth, scale);
+        final int height = scale(options.outHeight, scale);
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+
+        // Density scaling is applied to the subsampled image, so it only has
+        // to cover the factor the subsampling did not.
+        options.inScaled = true;
+        options.inDensity = density / sampleSize;
+        options.inTargetDensity = targetDensity;
+
+        if (config != null) {
+            options.inPreferredConfig = config;
+        }
+
+        // Before KitKat a Bitmap can only be reused for an image of exactly
+        // the same size decoded without scaling, so only reuse on KitKat+.
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+
+            // Mutable, so that it can in turn be reused by the next decode.
+            options.inMutable = true;
+
+            final int bytesPerPixel = (config == Bitmap.Config.RGB_565) ? 2 : 4;
+            if (reuse != null && reuse.isMutable() && !reuse.isRecycled()
+                    && reuse.getAllocationByteCount() >= width * height * bytesPerPixel) {
+
+                options.inBitmap = reuse;
+                try {
+                    return BitmapFactory.decodeResource(res, resId, options);
+                } catch (IllegalArgumentException e) {
+                    // The Bitmap could not be reused after all; decode into a
+                    // new one.
+                    options.inBitmap = null;
+                }
+            }
+        }
+
+        return BitmapFactory.decodeResource(res, resId, options);
+    }
+
+    // Private Methods /////////////////////////////////////////////////////////
+
+    private static BitmapFactory.Options decodeBounds(Resources res, int resId) {
+
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(res, resId, options);
+        return options;
+    }
+
+    /**
+     * Gets the density of the resource folder an image was loaded from.
+     */
+    private static int getDensity(Resources res, int resId) {
+
+        final TypedValue value = new TypedValue();
+        res.getValue(resId, value, true);
+
+        if (value.density == TypedValue.DENSITY_DEFAULT) {
+            return DisplayMetrics.DENSITY_DEFAULT;
+        } else if (value.density == TypedValue.DENSITY_NONE) {
+            // Not scaled, e.g. drawable-nodpi.
+            return res.getDisplayMetrics().densityDpi;
+        }
+        return value.density;
+    }
+
+    /**
+     * Scales a dimension the same way BitmapFactory does.
+     */
+    private static int scale(int size, float scale) {
+        return (int) (size * scale + 0.5f);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013, Edmodo, Inc. 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this work except in compliance with the License.
+ * You may obtain a copy of the License in the LICENSE file, or at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" 
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language 
+ * governing permissions and limitations under the License. 
+ */
+
+
+package com.edmodo.rangebar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.test.AndroidTestCase;
+
+/**
+ * Checks that a RangeBar whose components were released under memory
+ * pressure creates all of them again, whatever is changed before it is drawn.
+ */
+public class RangeBarReleaseTest extends AndroidTestCase {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 100;
+
+    private RangeBar mRangeBar;
+    private Canvas mCanvas;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        mRangeBar = new RangeBar(getContext());
+        mRangeBar.layout(0, 0, WIDTH, HEIGHT);
+        mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        mRangeBar.draw(mCanvas);
+    }
+
+    public void testReleaseThenDraw() {
+        mRangeBar.releaseResources();
+        mRangeBar.draw(mCanvas);
+    }
+
+    public void testReleaseThenSetThumbStyleThenDraw() {
+        mRangeBar.releaseResources();
+        mRangeBar.setThumbRadius(30);
+        mRangeBar.setThumbColorNormal(Color.RED);
+        mRangeBar.setThumbColorPressed(Color.BLUE);
+        mRangeBar.setThumbBitmapConfig(Bitmap.Config.RGB_565);
+        mRangeBar.draw(mCanvas);
+    }
+
+    public void testReleaseThenSetBarStyleThenDraw() {
+        mRangeBar.releaseResources();
+        mRangeBar.setBarColor(Color.GREEN);
+        mRangeBar.setConnectingLineWeight(8);
+        mRangeBar.draw(mCanvas);
+    }
+
+    public void testReleaseThenResizeThenDraw() {
+        mRangeBar.releaseResources();
+        mRangeBar.layout(0, 0, WIDTH / 2, HEIGHT);
+        mRangeBar.draw(mCanvas);
+        assertEquals(0, mRangeBar.getLeftIndex());
+    }
+}